@@ -0,0 +1,384 @@
+package org.example.config;
+
+import org.example.util.Logger;
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Config {
+    private static final Logger logger = Logger.getInstance();
+    private static volatile Config instance;
+    // 以下字段由synchronized保护；读取一律走不可变快照
+    private Properties properties;
+    // 通过set修改但还没保存的配置项，重新加载文件时保留
+    private final Set<String> dirtyKeys = new HashSet<>();
+    private boolean savePending;
+    // 所有写文件操作和监听器通知都在这个线程中串行执行
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ConfigWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>();
+    private final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+
+    // 配置常量
+    public static final String USER_TOKEN = "USER_TOKEN";
+    public static final String USER_NICKNAME = "USER_NICKNAME";
+    public static final String USER_PHONE = "USER_PHONE";
+    private static final String CONFIG_FILE = "config.properties";
+    // 编辑器保存文件时可能连续触发多个事件，等待片刻后合并为一次重新加载
+    private static final long RELOAD_DEBOUNCE_MS = 200;
+    // 这段时间内的多次saveConfig合并为一次写入
+    private static final long SAVE_DELAY_MS = 300;
+
+    private Config() {
+        this.properties = new Properties();
+        loadConfig();
+        snapshot.set(ConfigSnapshot.of(properties, null));
+        applyLoggerSettings();
+        startWatcher();
+    }
+
+    public static Config getInstance() {
+        if (instance == null) {
+            synchronized (Config.class) {
+                if (instance == null) {
+                    instance = new Config();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public ConfigSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public void addListener(ConfigListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ConfigListener listener) {
+        listeners.remove(listener);
+    }
+
+    // 在后台线程中延迟保存，调用线程(包括EDT)不会等待磁盘I/O
+    public void saveConfig() {
+        synchronized (this) {
+            if (savePending) {
+                return;
+            }
+            savePending = true;
+        }
+        writer.schedule(this::write, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // 立即写出尚未保存的修改并等待完成，程序退出前调用
+    public void flush() {
+        synchronized (this) {
+            if (!savePending && dirtyKeys.isEmpty()) {
+                return;
+            }
+            savePending = true;
+        }
+        try {
+            writer.submit(this::write).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof ConfigException ? (ConfigException) cause
+                    : new ConfigException("保存配置文件失败", cause);
+        }
+    }
+
+    // 复制当前配置后在锁外写文件：先写临时文件，再原子替换，中途失败不会留下半个配置文件
+    private void write() {
+        Properties copy = new Properties();
+        synchronized (this) {
+            if (!savePending) {
+                return; // 已被flush写出
+            }
+            savePending = false;
+            copy.putAll(properties);
+        }
+        try {
+            store(copy);
+            // 写入成功后才清除，期间重新加载文件也不会丢掉修改；写入后又被修改的项仍需保存
+            synchronized (this) {
+                dirtyKeys.removeIf(key -> properties.getProperty(key).equals(copy.getProperty(key)));
+            }
+            logger.log("Config", "配置文件已保存", Logger.LogLevel.INFO);
+        } catch (IOException e) {
+            logger.log("Config", "保存配置文件失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            throw new ConfigException("保存配置文件失败", e);
+        }
+    }
+
+    private static void store(Properties values) throws IOException {
+        Path target = Paths.get(CONFIG_FILE).toAbsolutePath();
+        Path temp = target.resolveSibling(CONFIG_FILE + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            values.store(output, "Updated Configuration");
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public boolean isUserLoggedIn() {
+        String token = get(USER_TOKEN);
+        return token != null && !token.isEmpty();
+    }
+
+    private void loadConfig() {
+        try (InputStream input = new FileInputStream(CONFIG_FILE)) {
+            properties.load(input);
+            logger.log("Config", "配置文件加载成功", Logger.LogLevel.INFO);
+        } catch (IOException e) {
+            logger.log("Config", "配置文件不存在，创建默认配置", Logger.LogLevel.WARN);
+            createDefaultConfig();
+        }
+    }
+
+    // Logger先于Config创建，日志相关配置在配置加载后再应用
+    private void applyLoggerSettings() {
+        for (Logger.LogLevel level : Logger.LogLevel.values()) {
+            String policy = get("LOG_POLICY_" + level.name());
+            if (policy == null || policy.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                logger.setOverflowPolicy(level, Logger.OverflowPolicy.valueOf(policy.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.log("Config", "未知的日志溢出策略: " + policy, Logger.LogLevel.WARN);
+            }
+        }
+        logger.setSampleRate(getInt("LOG_SAMPLE_RATE", 10));
+        logger.setRotationLimits(getLong("LOG_MAX_FILE_MB", 64) * 1024 * 1024,
+                getLong("LOG_MAX_TOTAL_MB", 1024) * 1024 * 1024,
+                getInt("LOG_RETENTION_DAYS", 7));
+        String sink = get("LOG_SINK");
+        if (sink != null && !sink.trim().isEmpty()) {
+            try {
+                logger.setSinkMode(Logger.SinkMode.valueOf(sink.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.log("Config", "未知的日志输出方式: " + sink, Logger.LogLevel.WARN);
+            }
+        }
+    }
+
+    // 重新读取配置文件，未保存的修改覆盖文件中的值；内容没有变化(包括本程序自己保存)时不发布
+    void reload() {
+        Properties loaded = new Properties();
+        try (InputStream input = new FileInputStream(CONFIG_FILE)) {
+            loaded.load(input);
+        } catch (IOException e) {
+            logger.log("Config", "重新加载配置文件失败: " + e.getMessage(), Logger.LogLevel.WARN);
+            return;
+        }
+        synchronized (this) {
+            for (String key : dirtyKeys) {
+                loaded.setProperty(key, properties.getProperty(key));
+            }
+            if (loaded.equals(properties)) {
+                return;
+            }
+            properties = loaded;
+        }
+        publish();
+        applyLoggerSettings();
+        logger.log("Config", "配置文件已重新加载", Logger.LogLevel.INFO);
+    }
+
+    // 快照立即替换，之后的get都能读到新值；监听器在写线程中按发布顺序通知，不占用调用线程(包括EDT)
+    private void publish() {
+        ConfigSnapshot previous;
+        ConfigSnapshot current;
+        synchronized (this) {
+            previous = snapshot.get();
+            current = ConfigSnapshot.of(properties, previous);
+            snapshot.set(current);
+        }
+        if (listeners.isEmpty()) {
+            return;
+        }
+        writer.execute(() -> {
+            for (ConfigListener listener : listeners) {
+                try {
+                    listener.onConfigChanged(previous, current);
+                } catch (RuntimeException e) {
+                    logger.log("Config", "配置监听器执行失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+                }
+            }
+        });
+    }
+
+    private void startWatcher() {
+        Path configPath = Paths.get(CONFIG_FILE).toAbsolutePath();
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            configPath.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.log("Config", "无法监视配置文件，修改后需重启生效: " + e.getMessage(), Logger.LogLevel.WARN);
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(watchService, configPath.getFileName()), "ConfigWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService watchService, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = containsFile(key, fileName);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                Thread.sleep(RELOAD_DEBOUNCE_MS);
+                while ((key = watchService.poll()) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                if (Files.exists(Paths.get(CONFIG_FILE))) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean containsFile(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    private void createDefaultConfig() {
+        // API配置
+        properties.setProperty("TIME_MILLISECONDS", "2000");
+        properties.setProperty("SHORT_NAME", "YE");
+        properties.setProperty("DEV_TYPE", "2");
+        properties.setProperty("DELAY_HOURS", "5");
+        properties.setProperty("PLATFORM_ID", "741");
+        properties.setProperty("CLIENT_TYPE", "ios");
+
+        // API URLs
+        properties.setProperty("SEARCH_URL", "https://api.x-metash.cn/h5/home/searchApp");
+        properties.setProperty("ORDER_URL", "https://api.x-metash.cn/h5/order/unifiedPay");
+        properties.setProperty("ARCHIVE_URL", "https://api.x-metash.cn/h5/goods/archive");
+        properties.setProperty("PRE_CREATE_URL", "https://api.x-metash.cn/h5/goods/preCreate");
+        properties.setProperty("CREATE_URL", "https://api.x-metash.cn/h5/goods/create/v2");
+        properties.setProperty("UNIFIED_PAY_URL", "https://api.x-metash.cn/h5/goods/create/unifiedPay");
+        properties.setProperty("LOGIN_URL", "https://api.x-metash.cn/h5/login");
+        properties.setProperty("ADDRESS_URL", "https://api.x-metash.cn/h5/address/list");
+        properties.setProperty("GOODS_DETAILS", "https://api.x-metash.cn/h5/goods/details");
+        properties.setProperty("XM_URL", "https://xmeta.x-metash.cn/prod/xmeta_mall/index.html");
+
+        // 重试配置
+        properties.setProperty("MAX_RETRIES", "3");
+        properties.setProperty("RETRY_DELAY_MS", "3000");
+
+        try {
+            store(properties);
+        } catch (IOException e) {
+            logger.log("Config", "保存配置文件失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            throw new ConfigException("保存配置文件失败", e);
+        }
+    }
+
+    public String get(String key) {
+        return snapshot.get().get(key);
+    }
+
+    public void set(String key, String value) {
+        update(Map.of(key, value));
+    }
+
+    // 一次修改多项(例如登录后保存的令牌、昵称和手机号)，只生成并发布一个快照；没有任何值变化时不发布
+    public void update(Map<String, String> values) {
+        synchronized (this) {
+            boolean changed = false;
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (entry.getValue().equals(properties.getProperty(entry.getKey()))) {
+                    continue;
+                }
+                properties.setProperty(entry.getKey(), entry.getValue());
+                dirtyKeys.add(entry.getKey());
+                changed = true;
+            }
+            if (!changed) {
+                return;
+            }
+        }
+        publish();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    public long getLong(String key) {
+        return Long.parseLong(get(key));
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.log("Config", String.format("配置项%s格式错误: %s，使用默认值%d", key, value, defaultValue),
+                    Logger.LogLevel.WARN);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.log("Config", String.format("配置项%s格式错误: %s，使用默认值%d", key, value, defaultValue),
+                    Logger.LogLevel.WARN);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.config;
+
+// 配置快照替换后在配置写线程中按发布顺序调用，实现应只更新字段，不做耗时操作
+@FunctionalInterface
+public interface ConfigListener {
+    void onConfigChanged(ConfigSnapshot previous, ConfigSnapshot current);
+}
@@ -0,0 +1,94 @@
+package org.example.config;
+
+import org.example.util.Logger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+// 某一时刻配置的不可变快照。热路径用到的数值在创建时解析并校验一次，
+// 非法值沿用上一个快照的值(首次加载时用默认值)，只在该项的原始值变化时警告一次
+public final class ConfigSnapshot {
+    private static final Logger logger = Logger.getInstance();
+
+    public static final long DEFAULT_MONITOR_FREQUENCY_MS = 2000;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_DELAY_MS = 3000;
+    public static final int DEFAULT_DEV_TYPE = 2;
+    public static final int DEFAULT_DELAY_HOURS = 5;
+    public static final int DEFAULT_ACCOUNT_MAX_QPS = 5;
+
+    private final Map<String, String> values;
+    private final long monitorFrequencyMs;
+    private final int maxRetries;
+    private final long retryDelayMs;
+    private final int devType;
+    private final int delayHours;
+    private final int accountMaxQps;
+
+    private ConfigSnapshot(Map<String, String> values, ConfigSnapshot previous) {
+        this.values = Collections.unmodifiableMap(values);
+        this.monitorFrequencyMs = parseLong("TIME_MILLISECONDS", 1, previous,
+                previous != null ? previous.monitorFrequencyMs : DEFAULT_MONITOR_FREQUENCY_MS);
+        this.maxRetries = (int) parseLong("MAX_RETRIES", 0, previous,
+                previous != null ? previous.maxRetries : DEFAULT_MAX_RETRIES);
+        this.retryDelayMs = parseLong("RETRY_DELAY_MS", 0, previous,
+                previous != null ? previous.retryDelayMs : DEFAULT_RETRY_DELAY_MS);
+        this.devType = (int) parseLong("DEV_TYPE", 0, previous,
+                previous != null ? previous.devType : DEFAULT_DEV_TYPE);
+        this.delayHours = (int) parseLong("DELAY_HOURS", 0, previous,
+                previous != null ? previous.delayHours : DEFAULT_DELAY_HOURS);
+        this.accountMaxQps = (int) parseLong("ACCOUNT_MAX_QPS", 1, previous,
+                previous != null ? previous.accountMaxQps : DEFAULT_ACCOUNT_MAX_QPS);
+    }
+
+    static ConfigSnapshot of(Properties properties, ConfigSnapshot previous) {
+        Map<String, String> values = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key));
+        }
+        return new ConfigSnapshot(values, previous);
+    }
+
+    private long parseLong(String key, long min, ConfigSnapshot previous, long fallback) {
+        String value = values.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return fallback;
+        }
+        // 值没变说明上一个快照已经解析过(并已警告过)，直接沿用
+        if (previous != null && value.equals(previous.values.get(key))) {
+            return fallback;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= min && parsed <= Integer.MAX_VALUE) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        logger.log("Config", String.format("配置项%s无效: %s，使用%d", key, value, fallback),
+                Logger.LogLevel.WARN);
+        return fallback;
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    // 两个快照中该配置项的原始值是否不同
+    public boolean changed(ConfigSnapshot other, String key) {
+        return other == null || !Objects.equals(values.get(key), other.values.get(key));
+    }
+
+    public long getMonitorFrequencyMs() { return monitorFrequencyMs; }
+    public int getMaxRetries() { return maxRetries; }
+    public long getRetryDelayMs() { return retryDelayMs; }
+    public int getDevType() { return devType; }
+    public int getDelayHours() { return delayHours; }
+    public int getAccountMaxQps() { return accountMaxQps; }
+}
@@ -0,0 +1,176 @@
+package org.example.headless;
+
+import org.example.config.Config;
+import org.example.service.MonitorCheckpoint;
+import org.example.service.ProductMonitor;
+import org.example.service.ProductMonitorFactory;
+import org.example.service.SearchFeed;
+import org.example.service.StartupOrchestrator;
+import org.example.service.WatchListStore;
+import org.example.service.event.EventBus;
+import org.example.service.session.AccountPool;
+import org.example.service.session.Session;
+import org.example.service.session.SessionManager;
+import org.example.util.Logger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 无界面运行：从监控清单创建监控，只通过日志输出状态和统计，不加载Swing、AWT和JavaFX
+// 用法: java -jar product-monitor-core-<版本>-jar-with-dependencies.jar [watches.json]
+// 需要先在界面中登录一次，或在config.properties中提供USER_TOKEN
+public class HeadlessLauncher {
+    private static final Logger logger = Logger.getInstance();
+    private static final String DEFAULT_WATCH_FILE = "watches.json";
+    private static final long DEFAULT_METRICS_INTERVAL_S = 60;
+
+    private final Config config = Config.getInstance();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private ScheduledExecutorService metricsScheduler;
+    // 因下单账号失效而暂停的购买监控，会话刷新成功后恢复
+    private final List<ProductMonitor> pausedForSession = new CopyOnWriteArrayList<>();
+
+    public static void main(String[] args) {
+        Path watchFile = Paths.get(args.length > 0 ? args[0] : DEFAULT_WATCH_FILE);
+        HeadlessLauncher launcher = new HeadlessLauncher();
+        Runtime.getRuntime().addShutdownHook(new Thread(launcher::shutdown, "HeadlessShutdown"));
+        try {
+            launcher.start(watchFile);
+        } catch (Exception e) {
+            logger.log("Headless", "无界面模式启动失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            System.err.println("启动失败: " + e.getMessage());
+            System.exit(1);
+        }
+        launcher.awaitTermination();
+    }
+
+    public void start(Path watchFile) throws Exception {
+        // 启动前先检查清单和登录状态，有问题直接退出；没有清单时从检查点恢复
+        if (Files.exists(watchFile)) {
+            if (WatchListStore.load(watchFile).getWatches().isEmpty()) {
+                throw new IllegalArgumentException("监控清单为空: " + watchFile);
+            }
+        } else if (!Files.exists(MonitorCheckpoint.getInstance().getFile())) {
+            throw new IllegalArgumentException("监控清单和检查点都不存在: " + watchFile);
+        }
+        if (!config.isUserLoggedIn()) {
+            throw new IllegalStateException("未登录，请先在界面中登录或在配置文件中设置" + Config.USER_TOKEN);
+        }
+
+        SessionManager.getInstance().addListener(new SessionManager.SessionListener() {
+            @Override
+            public void onSessionRefreshed(Session session) {
+                resumeBuying();
+            }
+
+            @Override
+            public void onSessionExpired(Session session) {
+                pauseBuying(session);
+            }
+        });
+
+        new StartupOrchestrator.Builder(watchFile)
+                .startIdleWatches(true)
+                .build()
+                .start();
+
+        long intervalSeconds = Math.max(1, config.getLong("HEADLESS_METRICS_INTERVAL_S", DEFAULT_METRICS_INTERVAL_S));
+        metricsScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessMetrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsScheduler.scheduleAtFixedRate(this::reportMetrics, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // 无人值守时无法重新登录，没有可用的下单账号时暂停购买监控，避免用失效的令牌继续下单
+    private void pauseBuying(Session session) {
+        logger.log("Headless", Logger.LogLevel.ERROR, "会话已失效({})，需要在界面中重新登录或更新配置中的{}",
+                session.getNickName(), Config.USER_TOKEN);
+        Session purchase = AccountPool.getInstance().getPurchaseSession();
+        if (purchase != null && !purchase.isExpired()) {
+            return;
+        }
+        for (ProductMonitor monitor : ProductMonitorFactory.getAllMonitors().values()) {
+            if (monitor.getMode().isBuying() && monitor.isRunning() && !monitor.isPaused()) {
+                monitor.pauseMonitoring();
+                pausedForSession.add(monitor);
+            }
+        }
+        logger.log("Headless", Logger.LogLevel.ERROR, "没有可用的下单账号，已暂停{}个购买监控", pausedForSession.size());
+    }
+
+    private void resumeBuying() {
+        Session purchase = AccountPool.getInstance().getPurchaseSession();
+        if (pausedForSession.isEmpty() || purchase == null || purchase.isExpired()) {
+            return;
+        }
+        for (ProductMonitor monitor : pausedForSession) {
+            monitor.resumeMonitoring();
+        }
+        logger.log("Headless", Logger.LogLevel.INFO, "会话已恢复，继续{}个购买监控", pausedForSession.size());
+        pausedForSession.clear();
+    }
+
+    private void reportMetrics() {
+        try {
+            for (ProductMonitor monitor : ProductMonitorFactory.getAllMonitors().values()) {
+                logger.log("Headless", Logger.LogLevel.INFO, "[{}] {} 当前价格{} 目标价格{} 检查{}次 跳过{}次 错误{}次 价格统计: {}",
+                        monitor.getKey(),
+                        monitor.getProduct().getSnapshot().getStatus(),
+                        monitor.getProduct().getSnapshot().getCurrentPrice(),
+                        monitor.getProduct().getTargetPrice(),
+                        monitor.getCheckCount(),
+                        monitor.getSkippedCount(),
+                        monitor.getErrorCount(),
+                        monitor.getProduct().getPriceStatistics().getSummary());
+            }
+            logger.log("Headless", SearchFeed.getSummary(), Logger.LogLevel.INFO);
+            logger.log("Headless", EventBus.getInstance().getStatistics(), Logger.LogLevel.INFO);
+            logger.log("Headless", logger.getStatistics(), Logger.LogLevel.INFO);
+        } catch (Exception e) {
+            logger.log("Headless", "输出统计失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+        }
+    }
+
+    private void awaitTermination() {
+        try {
+            terminated.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 由关闭钩子调用(SIGTERM/Ctrl+C)，可重复调用
+    public void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (metricsScheduler != null) {
+                metricsScheduler.shutdownNow();
+                reportMetrics();
+            }
+            MonitorCheckpoint.getInstance().stop();
+            ProductMonitorFactory.shutdown();
+            SessionManager.getInstance().stop();
+            EventBus.getInstance().shutdown();
+            config.flush();
+        } catch (Exception e) {
+            logger.log("Headless", "关闭时出错: " + e.getMessage(), Logger.LogLevel.ERROR);
+        } finally {
+            logger.log("Headless", "无界面模式已停止", Logger.LogLevel.INFO);
+            logger.shutdown();
+            terminated.countDown();
+        }
+    }
+}
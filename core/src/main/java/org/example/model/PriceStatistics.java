@@ -0,0 +1,119 @@
+package org.example.model;
+
+import org.example.util.QuantileSketch;
+
+// 单个商品的流式价格统计，每次价格O(1)更新、内存固定，不保存也不重新扫描原始历史:
+//   指数加权均值(EWMA)、累计均值和方差(Welford)、最近window次的最低/最高价(单调队列)、对数分桶分位数摘要。
+// 队列和摘要在第一次记录价格时才分配。写入只来自监控线程，读取来自界面和统计输出，用this同步
+public class PriceStatistics {
+    public static final double DEFAULT_EWMA_ALPHA = 0.2;
+    public static final int DEFAULT_WINDOW = 120;
+    private static final double SKETCH_ACCURACY = 0.01;
+    private static final int SKETCH_MAX_BUCKETS = 1024;
+
+    private final double alpha;
+    private final int window;
+    private long count;
+    private double last;
+    private long lastUpdateTime;
+    private double ewma;
+    private double mean;
+    private double m2;
+    // 单调队列: 环形数组保存价格和序号，min队列价格递增，max队列价格递减
+    private double[] minValues;
+    private long[] minTicks;
+    private int minHead;
+    private int minSize;
+    private double[] maxValues;
+    private long[] maxTicks;
+    private int maxHead;
+    private int maxSize;
+    private QuantileSketch sketch;
+
+    public PriceStatistics() {
+        this(DEFAULT_EWMA_ALPHA, DEFAULT_WINDOW);
+    }
+
+    public PriceStatistics(double alpha, int window) {
+        if (!(alpha > 0 && alpha <= 1) || window <= 0) {
+            throw new IllegalArgumentException("EWMA系数须在0到1之间，窗口必须大于0");
+        }
+        this.alpha = alpha;
+        this.window = window;
+    }
+
+    public synchronized void record(double price, long timeMillis) {
+        if (minValues == null) {
+            minValues = new double[window];
+            minTicks = new long[window];
+            maxValues = new double[window];
+            maxTicks = new long[window];
+        }
+        if (sketch == null) {
+            sketch = new QuantileSketch(SKETCH_ACCURACY, SKETCH_MAX_BUCKETS);
+        }
+        long tick = count++;
+        last = price;
+        lastUpdateTime = timeMillis;
+        ewma = tick == 0 ? price : ewma + alpha * (price - ewma);
+        double delta = price - mean;
+        mean += delta / count;
+        m2 += delta * (price - mean);
+        pushMin(price, tick);
+        pushMax(price, tick);
+        sketch.add(price);
+    }
+
+    private void pushMin(double price, long tick) {
+        while (minSize > 0 && minValues[index(minHead, minSize - 1)] >= price) {
+            minSize--;
+        }
+        if (minSize > 0 && minTicks[minHead] <= tick - window) {
+            minHead = index(minHead, 1);
+            minSize--;
+        }
+        minValues[index(minHead, minSize)] = price;
+        minTicks[index(minHead, minSize)] = tick;
+        minSize++;
+    }
+
+    private void pushMax(double price, long tick) {
+        while (maxSize > 0 && maxValues[index(maxHead, maxSize - 1)] <= price) {
+            maxSize--;
+        }
+        if (maxSize > 0 && maxTicks[maxHead] <= tick - window) {
+            maxHead = index(maxHead, 1);
+            maxSize--;
+        }
+        maxValues[index(maxHead, maxSize)] = price;
+        maxTicks[index(maxHead, maxSize)] = tick;
+        maxSize++;
+    }
+
+    private int index(int head, int offset) {
+        int index = head + offset;
+        return index >= window ? index - window : index;
+    }
+
+    public synchronized long getCount() { return count; }
+    public synchronized double getLast() { return last; }
+    public synchronized long getLastUpdateTime() { return lastUpdateTime; }
+    public synchronized double getEwma() { return ewma; }
+    public synchronized double getMean() { return mean; }
+    public synchronized double getVariance() { return count > 1 ? m2 / (count - 1) : 0; }
+    public synchronized double getStandardDeviation() { return Math.sqrt(getVariance()); }
+    public synchronized double getWindowMin() { return minSize > 0 ? minValues[minHead] : Double.NaN; }
+    public synchronized double getWindowMax() { return maxSize > 0 ? maxValues[maxHead] : Double.NaN; }
+    public synchronized double getQuantile(double q) { return sketch != null ? sketch.quantile(q) : Double.NaN; }
+    public int getWindow() { return window; }
+
+    // 一行摘要，用于界面统计和无界面模式的日志
+    public synchronized String getSummary() {
+        if (count == 0) {
+            return "暂无价格";
+        }
+        return String.format("EWMA %.2f, 均值 %.2f, 标准差 %.2f, 近%d次最低 %.2f 最高 %.2f, P10/P50/P90 %.2f/%.2f/%.2f (%d次)",
+                ewma, mean, getStandardDeviation(), Math.min(count, window), getWindowMin(), getWindowMax(),
+                sketch.quantile(0.1), sketch.quantile(0.5), sketch.quantile(0.9), count);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Product {
+    private final String name;
+    // 所属规则的标识，日志来源和事件按它区分同名商品的多条规则；未指定时等于名称，修改目标价格时随之更新
+    private volatile String ruleKey;
+    private volatile double targetPrice;
+    // 每份新的搜索结果记录一次，历史均价即其中的累计均值
+    private final PriceStatistics priceStatistics = new PriceStatistics();
+    // 监控线程每次更新都整体替换快照，读取方拿到的价格与商品ID总是同一次搜索的结果
+    private final AtomicReference<ProductSnapshot> state;
+
+    private Product(Builder builder) {
+        this.name = builder.name;
+        this.ruleKey = builder.ruleKey != null ? builder.ruleKey : builder.name;
+        this.targetPrice = builder.targetPrice;
+        this.state = new AtomicReference<>(ProductSnapshot.INITIAL);
+    }
+
+    public static class Builder {
+        private final String name;
+        private String ruleKey;
+        private double targetPrice;
+
+        public Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder targetPrice(double price) {
+            this.targetPrice = price;
+            return this;
+        }
+
+        public Builder ruleKey(String ruleKey) {
+            this.ruleKey = ruleKey;
+            return this;
+        }
+
+        public Product build() {
+            return new Product(this);
+        }
+    }
+
+    public ProductSnapshot getSnapshot() {
+        return state.get();
+    }
+
+    public ProductSnapshot publish(double currentPrice, long minPriceGoodsId, long archiveId) {
+        return state.updateAndGet(s -> s.withPrice(currentPrice, minPriceGoodsId, archiveId));
+    }
+
+    public void recordPrice(double price, long timeMillis) {
+        priceStatistics.record(price, timeMillis);
+    }
+
+    public ProductSnapshot restore(double currentPrice, long minPriceGoodsId, long archiveId, long updateTime) {
+        return state.updateAndGet(s -> s.withRestoredPrice(currentPrice, minPriceGoodsId, archiveId, updateTime));
+    }
+
+    // Getters and setters
+    public String getName() { return name; }
+    public String getRuleKey() { return ruleKey; }
+    public void setRuleKey(String ruleKey) { this.ruleKey = ruleKey; }
+    public double getTargetPrice() { return targetPrice; }
+    public void setTargetPrice(double targetPrice) { this.targetPrice = targetPrice; }
+    public double getCurrentPrice() { return state.get().getCurrentPrice(); }
+    public String getStatus() { return state.get().getStatus(); }
+    public void setStatus(String status) { state.updateAndGet(s -> s.withStatus(status)); }
+    public long getMinPriceGoodsId() { return state.get().getMinPriceGoodsId(); }
+    public long getArchiveId() { return state.get().getArchiveId(); }
+    public PriceStatistics getPriceStatistics() { return priceStatistics; }
+    public double getAvgHistoryPrice() { return priceStatistics.getMean(); }
+}
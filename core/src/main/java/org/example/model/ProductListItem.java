@@ -0,0 +1,44 @@
+package org.example.model;
+
+// 列表项按规则键区分，同一商品名称可以有多条不同价格、账号或触发条件的规则；改价后整项替换
+public class ProductListItem {
+    private final String name;
+    private final double targetPrice;
+    private final String key;
+    private final String account;
+
+    public ProductListItem(String name, double targetPrice) {
+        this(name, targetPrice, name, null);
+    }
+
+    public ProductListItem(String name, double targetPrice, String key, String account) {
+        this.name = name;
+        this.targetPrice = targetPrice;
+        this.key = key;
+        this.account = account;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getTargetPrice() {
+        return targetPrice;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    @Override
+    public String toString() {
+        if (account != null) {
+            return String.format("%s - 目标价格: %.2f - 账号: %s", name, targetPrice, account);
+        }
+        return String.format("%s - 目标价格: %.2f", name, targetPrice);
+    }
+}
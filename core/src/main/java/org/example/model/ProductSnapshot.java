@@ -0,0 +1,40 @@
+package org.example.model;
+
+public final class ProductSnapshot {
+    static final ProductSnapshot INITIAL = new ProductSnapshot(0, 0, 0, "初始化", 0);
+
+    private final double currentPrice;
+    private final long minPriceGoodsId;
+    private final long archiveId;
+    private final String status;
+    private final long updateTime;
+
+    private ProductSnapshot(double currentPrice, long minPriceGoodsId, long archiveId,
+                            String status, long updateTime) {
+        this.currentPrice = currentPrice;
+        this.minPriceGoodsId = minPriceGoodsId;
+        this.archiveId = archiveId;
+        this.status = status;
+        this.updateTime = updateTime;
+    }
+
+    ProductSnapshot withPrice(double currentPrice, long minPriceGoodsId, long archiveId) {
+        return new ProductSnapshot(currentPrice, minPriceGoodsId, archiveId, status, System.currentTimeMillis());
+    }
+
+    // 从检查点恢复，保留原来的价格更新时间
+    ProductSnapshot withRestoredPrice(double currentPrice, long minPriceGoodsId, long archiveId, long updateTime) {
+        return new ProductSnapshot(currentPrice, minPriceGoodsId, archiveId, status, updateTime);
+    }
+
+    ProductSnapshot withStatus(String status) {
+        return new ProductSnapshot(currentPrice, minPriceGoodsId, archiveId, status, updateTime);
+    }
+
+    // Getters
+    public double getCurrentPrice() { return currentPrice; }
+    public long getMinPriceGoodsId() { return minPriceGoodsId; }
+    public long getArchiveId() { return archiveId; }
+    public String getStatus() { return status; }
+    public long getUpdateTime() { return updateTime; }
+}
@@ -0,0 +1,69 @@
+package org.example.model;
+
+import java.util.Locale;
+
+// 监控清单中的一项，即一条规则。同一名称可以有多条规则(不同价格、下单账号或触发条件)，共用一个搜索源
+public final class WatchDefinition {
+    private final String name;
+    private final double targetPrice;
+    private final WatchMode mode;
+    // 下单账号手机号，null表示使用默认下单账号
+    private final String account;
+    // 触发条件表达式，null表示默认的price <= target
+    private final String trigger;
+
+    public WatchDefinition(String name, double targetPrice, WatchMode mode) {
+        this(name, targetPrice, mode, null, null);
+    }
+
+    public WatchDefinition(String name, double targetPrice, WatchMode mode, String account) {
+        this(name, targetPrice, mode, account, null);
+    }
+
+    public WatchDefinition(String name, double targetPrice, WatchMode mode, String account, String trigger) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("商品名称不能为空");
+        }
+        if (!(targetPrice > 0)) {
+            throw new IllegalArgumentException("目标价格必须大于0: " + name);
+        }
+        this.name = name.trim();
+        this.targetPrice = targetPrice;
+        this.mode = mode != null ? mode : WatchMode.MONITOR;
+        this.account = account == null || account.trim().isEmpty() ? null : account.trim();
+        this.trigger = trigger == null || trigger.trim().isEmpty() ? null : trigger.trim();
+    }
+
+    public WatchDefinition withMode(WatchMode mode) {
+        return new WatchDefinition(name, targetPrice, mode, account, trigger);
+    }
+
+    public WatchDefinition withTargetPrice(double targetPrice) {
+        return new WatchDefinition(name, targetPrice, mode, account, trigger);
+    }
+
+    // 规则标识: 名称|价格[|账号][|when:触发条件]，相同标识的规则视为重复。
+    // 模式不在标识中：界面可以随时切换规则的操作，标识在监控的整个生命周期内不变
+    public String getKey() {
+        String key = String.format(Locale.ROOT, "%s|%.2f", name, targetPrice);
+        if (account != null) {
+            key += "|" + account;
+        }
+        return trigger != null ? key + "|when:" + trigger : key;
+    }
+
+    public String getName() { return name; }
+    public double getTargetPrice() { return targetPrice; }
+    public WatchMode getMode() { return mode; }
+    public String getAccount() { return account; }
+    public String getTrigger() { return trigger; }
+
+    @Override
+    public String toString() {
+        String text = String.format("%s (%.2f, %s)", name, targetPrice, mode.getDescription());
+        if (account != null) {
+            text += " 账号" + account;
+        }
+        return trigger != null ? text + " 条件: " + trigger : text;
+    }
+}
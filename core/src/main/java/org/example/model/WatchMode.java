@@ -0,0 +1,22 @@
+package org.example.model;
+
+public enum WatchMode {
+    MONITOR("仅监控"),
+    BUY_ONCE("单次购买"),
+    BUY_CONTINUOUS("持续购买"),
+    PRE_ORDER_SINGLE("单次发布"),
+    PRE_ORDER_TRIPLE("多次发布");
+
+    private final String description;
+
+    WatchMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() { return description; }
+
+    // 购买模式需要收货地址
+    public boolean isBuying() {
+        return this == BUY_ONCE || this == BUY_CONTINUOUS;
+    }
+}
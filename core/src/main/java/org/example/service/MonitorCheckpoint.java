@@ -0,0 +1,305 @@
+package org.example.service;
+
+import org.example.config.Config;
+import org.example.model.ProductSnapshot;
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
+import org.example.util.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// 监控检查点：定期把所有监控的定义和运行统计写入二进制文件，重启后据此恢复监控并沿用统计和最近价格。
+// 先写临时文件并刷盘再原子替换，进程在任何时刻崩溃都只会留下完整的旧文件或新文件
+//
+// 文件:  魔数(4) 版本(2) 保留(2) 写入时间(8) 记录数(4)，之后是连续的记录，最后是CRC32(4)
+// 记录:  名称长度(2) 名称(UTF-8) 账号长度(1，0表示默认账号) 账号(UTF-8) 触发条件长度(2，0表示默认) 触发条件(UTF-8)
+//        目标价格(8) 模式(1) 标志(1，bit0=已停止)
+//        当前价格(8) 商品ID(8) 藏品ID(8) 价格更新时间(8) 检查次数(8) 错误次数(8) 跳过次数(8) 运行时长(8)
+public class MonitorCheckpoint {
+    private static final Logger logger = Logger.getInstance();
+    private static volatile MonitorCheckpoint instance;
+
+    static final int MAGIC = 0x4D434B50; // "MCKP"
+    static final short VERSION = 3;
+    private static final int HEADER_SIZE = 20;
+    private static final int RECORD_FIXED_SIZE = 2 + 1 + 2 + 8 + 1 + 1 + 8 * 8;
+    private static final int CRC_SIZE = 4;
+    private static final int MAX_NAME_BYTES = Short.MAX_VALUE;
+    private static final int MAX_ACCOUNT_BYTES = 255;
+    private static final byte FLAG_STOPPED = 1;
+    private static final String DEFAULT_FILE = "monitors.ckpt";
+    private static final long DEFAULT_INTERVAL_S = 30;
+
+    private final Path file;
+    private ScheduledExecutorService scheduler;
+    // 上次写入内容的CRC，内容没有变化时跳过写入
+    private long lastWrittenCrc = -1;
+
+    private MonitorCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    public static MonitorCheckpoint getInstance() {
+        if (instance == null) {
+            synchronized (MonitorCheckpoint.class) {
+                if (instance == null) {
+                    String file = Config.getInstance().get("CHECKPOINT_FILE");
+                    instance = new MonitorCheckpoint(Paths.get(
+                            file == null || file.trim().isEmpty() ? DEFAULT_FILE : file.trim()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        long interval = Math.max(1, Config.getInstance().getLong("CHECKPOINT_INTERVAL_S", DEFAULT_INTERVAL_S));
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MonitorCheckpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, interval, interval, TimeUnit.SECONDS);
+        logger.log("Checkpoint", String.format("监控检查点已启动，间隔: %d秒, 文件: %s", interval, file),
+                Logger.LogLevel.INFO);
+    }
+
+    // 停止定期写入并立即写入最后一次检查点，需要在停止监控之前调用
+    public void stop() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        checkpointQuietly();
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            logger.log("Checkpoint", "写入监控检查点失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+        }
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        Collection<ProductMonitor> monitors = ProductMonitorFactory.getAllMonitors().values();
+        ByteBuffer buffer = encode(monitors);
+        long crc = buffer.getInt(buffer.limit() - CRC_SIZE) & 0xFFFFFFFFL;
+        if (crc == lastWrittenCrc && Files.exists(file)) {
+            return;
+        }
+        write(file, buffer);
+        lastWrittenCrc = crc;
+    }
+
+    // 文件不存在时返回空列表；文件损坏时记录警告并返回空列表，由调用方改用监控清单
+    public List<Entry> load() {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            return decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (Exception e) {
+            logger.log("Checkpoint", "监控检查点无效，已忽略: " + e.getMessage(), Logger.LogLevel.WARN);
+            return List.of();
+        }
+    }
+
+    static ByteBuffer encode(Collection<ProductMonitor> monitors) {
+        List<byte[]> names = new ArrayList<>(monitors.size());
+        List<byte[]> accounts = new ArrayList<>(monitors.size());
+        List<byte[]> triggers = new ArrayList<>(monitors.size());
+        int size = HEADER_SIZE + CRC_SIZE;
+        for (ProductMonitor monitor : monitors) {
+            byte[] name = monitor.getProduct().getName().getBytes(StandardCharsets.UTF_8);
+            String accountText = monitor.getAccount();
+            byte[] account = accountText != null ? accountText.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            String triggerText = monitor.getTriggerExpression();
+            byte[] trigger = triggerText != null ? triggerText.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            names.add(name);
+            accounts.add(account);
+            triggers.add(trigger);
+            size += RECORD_FIXED_SIZE + name.length + account.length + trigger.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putLong(System.currentTimeMillis()).putInt(monitors.size());
+        int index = 0;
+        for (ProductMonitor monitor : monitors) {
+            byte[] name = names.get(index);
+            byte[] account = accounts.get(index);
+            byte[] trigger = triggers.get(index++);
+            if (name.length > MAX_NAME_BYTES || account.length > MAX_ACCOUNT_BYTES || trigger.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("商品名称、账号或触发条件过长: " + monitor.getProduct().getName());
+            }
+            ProductSnapshot snapshot = monitor.getProduct().getSnapshot();
+            buffer.putShort((short) name.length).put(name)
+                    .put((byte) account.length).put(account)
+                    .putShort((short) trigger.length).put(trigger)
+                    .putDouble(monitor.getProduct().getTargetPrice())
+                    .put((byte) monitor.getMode().ordinal())
+                    .put(monitor.isStopped() ? FLAG_STOPPED : 0)
+                    .putDouble(snapshot.getCurrentPrice())
+                    .putLong(snapshot.getMinPriceGoodsId())
+                    .putLong(snapshot.getArchiveId())
+                    .putLong(snapshot.getUpdateTime())
+                    .putLong(monitor.getCheckCount())
+                    .putLong(monitor.getErrorCount())
+                    .putLong(monitor.getSkippedCount())
+                    .putLong(monitor.getRunningTime());
+        }
+        buffer.putInt((int) crcOf(buffer.array(), buffer.position()));
+        buffer.flip();
+        return buffer;
+    }
+
+    static List<Entry> decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE + CRC_SIZE) {
+            throw new IllegalStateException("文件过短");
+        }
+        int bodyLength = buffer.limit() - CRC_SIZE;
+        long expectedCrc = buffer.getInt(bodyLength) & 0xFFFFFFFFL;
+        if (crcOf(buffer.array(), bodyLength) != expectedCrc) {
+            throw new IllegalStateException("校验和不一致");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("不是监控检查点文件");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("不支持的版本: " + version);
+        }
+        buffer.getShort();
+        buffer.getLong();
+        int count = buffer.getInt();
+
+        WatchMode[] modes = WatchMode.values();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] nameBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            byte[] accountBytes = new byte[buffer.get() & 0xFF];
+            buffer.get(accountBytes);
+            String account = accountBytes.length > 0 ? new String(accountBytes, StandardCharsets.UTF_8) : null;
+            byte[] triggerBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(triggerBytes);
+            String trigger = triggerBytes.length > 0 ? new String(triggerBytes, StandardCharsets.UTF_8) : null;
+            double targetPrice = buffer.getDouble();
+            int mode = buffer.get();
+            boolean stopped = (buffer.get() & FLAG_STOPPED) != 0;
+            double currentPrice = buffer.getDouble();
+            long minPriceGoodsId = buffer.getLong();
+            long archiveId = buffer.getLong();
+            long priceUpdateTime = buffer.getLong();
+            long checkCount = buffer.getLong();
+            long errorCount = buffer.getLong();
+            long skippedCount = buffer.getLong();
+            long runningTime = buffer.getLong();
+            try {
+                WatchDefinition definition = new WatchDefinition(name, targetPrice,
+                        mode >= 0 && mode < modes.length ? modes[mode] : WatchMode.MONITOR, account, trigger);
+                entries.add(new Entry(definition, stopped, currentPrice, minPriceGoodsId, archiveId,
+                        priceUpdateTime, checkCount, errorCount, skippedCount, runningTime));
+            } catch (IllegalArgumentException e) {
+                logger.log("Checkpoint", "忽略无效的检查点记录: " + e.getMessage(), Logger.LogLevel.WARN);
+            }
+        }
+        if (buffer.position() != bodyLength) {
+            throw new IllegalStateException("记录长度与文件长度不一致");
+        }
+        return entries;
+    }
+
+    private static long crcOf(byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return crc.getValue();
+    }
+
+    private static void write(Path file, ByteBuffer buffer) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // 检查点中的一个监控
+    public static final class Entry {
+        private final WatchDefinition definition;
+        private final boolean stopped;
+        private final double currentPrice;
+        private final long minPriceGoodsId;
+        private final long archiveId;
+        private final long priceUpdateTime;
+        private final long checkCount;
+        private final long errorCount;
+        private final long skippedCount;
+        private final long runningTime;
+
+        Entry(WatchDefinition definition, boolean stopped, double currentPrice, long minPriceGoodsId,
+              long archiveId, long priceUpdateTime, long checkCount, long errorCount,
+              long skippedCount, long runningTime) {
+            this.definition = definition;
+            this.stopped = stopped;
+            this.currentPrice = currentPrice;
+            this.minPriceGoodsId = minPriceGoodsId;
+            this.archiveId = archiveId;
+            this.priceUpdateTime = priceUpdateTime;
+            this.checkCount = checkCount;
+            this.errorCount = errorCount;
+            this.skippedCount = skippedCount;
+            this.runningTime = runningTime;
+        }
+
+        // 恢复最近价格和累计统计，新上架基线和结果指纹不保存，由第一次轮询重新建立
+        void applyTo(ProductMonitor monitor) {
+            if (priceUpdateTime > 0) {
+                monitor.getProduct().restore(currentPrice, minPriceGoodsId, archiveId, priceUpdateTime);
+            }
+            monitor.restoreStatistics(checkCount, errorCount, skippedCount, runningTime, stopped);
+        }
+
+        public WatchDefinition getDefinition() { return definition; }
+        // 上次退出前已被停止或单次操作已完成，恢复后不再启动
+        public boolean isStopped() { return stopped; }
+        public double getCurrentPrice() { return currentPrice; }
+        public long getCheckCount() { return checkCount; }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.service;
+
+import org.example.util.LongHashSet;
+
+// 两代集合轮换：当前代写满后整体降为上一代，更早的记录被淘汰，内存始终为两代容量。
+// 集合在第一次记录时才分配，大量监控同时创建或恢复时不必预先占用内存
+public class NewListingDetector {
+    private final int generationSize;
+    private LongHashSet current;
+    private LongHashSet previous;
+    private boolean primed;
+    private long newListingCount;
+
+    public NewListingDetector(int generationSize) {
+        if (generationSize <= 0) {
+            throw new IllegalArgumentException("集合容量必须大于0");
+        }
+        this.generationSize = generationSize;
+    }
+
+    // 首次扫描只建立基线，之后返回true表示该商品ID从未出现过
+    public boolean offer(long goodsId) {
+        if (current == null) {
+            current = new LongHashSet(generationSize);
+            previous = new LongHashSet(generationSize);
+        }
+        if (current.contains(goodsId)) {
+            return false;
+        }
+        boolean seen = previous.contains(goodsId);
+        if (current.isFull()) {
+            rotate();
+        }
+        current.add(goodsId);
+        if (seen || !primed) {
+            return false;
+        }
+        newListingCount++;
+        return true;
+    }
+
+    // 一轮搜索结果处理完后调用，首轮之后开始产生新上架事件
+    public void markPrimed() {
+        primed = true;
+    }
+
+    public void reset() {
+        if (current != null) {
+            current.clear();
+            previous.clear();
+        }
+        primed = false;
+        newListingCount = 0;
+    }
+
+    private void rotate() {
+        LongHashSet oldest = previous;
+        previous = current;
+        oldest.clear();
+        current = oldest;
+    }
+
+    public long getNewListingCount() {
+        return newListingCount;
+    }
+
+    public int getTrackedCount() {
+        return current == null ? 0 : current.size() + previous.size();
+    }
+}
@@ -0,0 +1,595 @@
+package org.example.service;
+
+import org.example.config.Config;
+import org.example.config.ConfigSnapshot;
+import org.example.model.Product;
+import org.example.model.ProductSnapshot;
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
+import org.example.service.event.EventBus;
+import org.example.service.event.MonitorEvent;
+import org.example.service.state.*;
+import org.example.service.strategy.BuyOperation;
+import org.example.service.strategy.PreOrderOperation;
+import org.example.service.strategy.ProductOperation;
+import org.example.service.trigger.PriceTrigger;
+import org.example.util.Logger;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ProductMonitor {
+    private static final Logger logger = Logger.getInstance();
+    private static final long NO_FINGERPRINT = 0L;
+    private static final long EMPTY_RESULT_FINGERPRINT = -1L;
+    private static final int MAX_PENDING_LISTINGS = 1024;
+    // 所有监控共用，只负责在相位到期时创建轮询线程
+    private static final ScheduledExecutorService LAUNCHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MonitorLauncher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Config config = Config.getInstance();
+    private final EventBus eventBus = EventBus.getInstance();
+
+    private final Product product;
+    // 规则标识(名称|价格[|账号][|when:触发条件])，切换操作模式不影响，修改目标价格时由工厂重新登记
+    private volatile String key;
+    // 创建时的规则定义，账号即使在非购买模式下也保留，用于修改价格后重新计算标识
+    private volatile WatchDefinition definition;
+    // 运行期间订阅的搜索源，同一商品名称的规则共用
+    private volatile SearchFeed feed;
+    // 已处理过的搜索结果序号(所有搜索源共用的递增序号)，每份结果只判断一次触发条件
+    private long lastFeedSequence;
+    // 搜索源分发来、尚未处理的新上架商品
+    private final List<SearchFeed.NewListing> pendingListings = new ArrayList<>();
+    // 购买或发布的触发条件，替换整个对象来修改，条件状态只由轮询线程读写
+    private volatile PriceTrigger trigger = PriceTrigger.defaultTrigger();
+    private boolean triggered;
+    private boolean lastTriggered;
+    // 触发条件或目标价格已修改，上一次的判断结果作废，等下一份搜索结果重新判断
+    private volatile boolean triggerStale;
+    // 上一轮执行了购买；持续购买时结果不变也要继续处理
+    private boolean lastPurchased;
+    private volatile TaskState currentState;
+    private Thread monitoringThread;
+    private ProductOperation operation;
+    private final AtomicBoolean running;
+    // 启动后又被停止，检查点据此决定重启后是否继续监控
+    private volatile boolean stopped;
+    // 暂停期间轮询线程保留，只是不再请求
+    private volatile boolean paused;
+    private final AtomicLong startTime;
+    private final AtomicLong totalRunningTime;
+    private final AtomicLong checkCount;
+    private final AtomicLong errorCount;
+    private final AtomicLong skippedCount;
+    // 上一次完整处理过的搜索结果指纹，结果不变时跳过后续处理
+    private volatile long lastFingerprint;
+    private volatile long monitorFrequency;
+    private volatile int maxRetries;
+    private volatile long retryDelay;
+    // 第一次轮询(无论成功与否)结束的时间戳，用于统计启动到首次轮询的耗时
+    private final CompletableFuture<Long> firstPoll = new CompletableFuture<>();
+
+    public ProductMonitor(WatchDefinition definition) {
+        this.definition = definition;
+        this.key = definition.getKey();
+        this.product = new Product.Builder(definition.getName())
+                .targetPrice(definition.getTargetPrice())
+                .ruleKey(key)
+                .build();
+        this.currentState = new StoppedState();
+        this.running = new AtomicBoolean(false);
+        this.startTime = new AtomicLong(0);
+        this.totalRunningTime = new AtomicLong(0);
+        this.checkCount = new AtomicLong(0);
+        this.errorCount = new AtomicLong(0);
+        this.skippedCount = new AtomicLong(0);
+        this.lastFingerprint = NO_FINGERPRINT;
+        ConfigSnapshot settings = config.getSnapshot();
+        this.monitorFrequency = settings.getMonitorFrequencyMs();
+        this.maxRetries = settings.getMaxRetries();
+        this.retryDelay = settings.getRetryDelayMs();
+    }
+
+    public void startMonitoring() {
+        startMonitoring(0);
+    }
+
+    // 大量监控同时恢复时，用不同的相位错开第一次轮询，避免同一时刻集中请求；
+    // 轮询线程在相位到期时才创建，启动本身不受监控数量影响
+    public void startMonitoring(long phaseMs) {
+        if (running.compareAndSet(false, true)) {
+            stopped = false;
+            paused = false;
+            setState(new RunningState());
+            startTime.set(System.currentTimeMillis());
+            if (phaseMs > 0) {
+                LAUNCHER.schedule(this::launchThread, phaseMs, TimeUnit.MILLISECONDS);
+            } else {
+                launchThread();
+            }
+        }
+    }
+
+    // 相位到期前已停止，或线程已由之后的一次启动创建时，不再创建
+    private synchronized void launchThread() {
+        if (!isRunning() || monitoringThread != null) {
+            return;
+        }
+        monitoringThread = new Thread(() -> {
+            logger.log(key, "开始监控", Logger.LogLevel.INFO);
+            feed = SearchFeed.subscribe(product.getName(), this);
+            while (isRunning()) {
+                try {
+                    if (paused) {
+                        TimeUnit.MILLISECONDS.sleep(monitorFrequency);
+                        continue;
+                    }
+                    searchAndBuy(monitorFrequency);
+                    checkCount.incrementAndGet();
+                    firstPoll.complete(System.currentTimeMillis());
+                    TimeUnit.MILLISECONDS.sleep(monitorFrequency);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (Exception e) {
+                    firstPoll.complete(System.currentTimeMillis());
+                    errorCount.incrementAndGet();
+                    handleError(e);
+                    retryOperation();
+                }
+            }
+            SearchFeed.unsubscribe(feed, this);
+            synchronized (pendingListings) {
+                pendingListings.clear();
+            }
+            updateTotalRunningTime();
+            setState(new StoppedState());
+        });
+
+        monitoringThread.setName("Monitor-" + product.getName());
+        monitoringThread.start();
+    }
+
+    public void stopMonitoring() {
+        if (running.compareAndSet(true, false)) {
+            stopped = true;
+            paused = false;
+            Thread thread;
+            synchronized (this) {
+                thread = monitoringThread;
+                monitoringThread = null;
+            }
+            if (thread != null) {
+                thread.interrupt();
+            }
+            updateTotalRunningTime();
+            setState(new StoppedState());
+            logger.log(key, "停止监控", Logger.LogLevel.INFO);
+        }
+    }
+
+    public void pauseMonitoring() {
+        if (running.get() && !paused) {
+            paused = true;
+            setState(new PausedState());
+            updateTotalRunningTime();
+        }
+    }
+
+    public void resumeMonitoring() {
+        if (paused) {
+            paused = false;
+            if (running.get()) {
+                startTime.set(System.currentTimeMillis());
+                setState(new RunningState());
+                return;
+            }
+        }
+        if (!running.get()) {
+            startMonitoring();
+        }
+    }
+
+    // 搜索结果来自共用的搜索源，maxAgeMs内其他规则已取得的结果直接复用
+    private void searchAndBuy(long maxAgeMs) throws Exception {
+        if (!isRunning()) {
+            return;
+        }
+
+        SearchFeed.Result result = feed.fetch(maxAgeMs);
+        // 先取走修改标记再读取条件，求值期间的修改留到下一轮
+        boolean stale = triggerStale;
+        triggerStale = false;
+        if (result.getSequence() != lastFeedSequence) {
+            lastFeedSequence = result.getSequence();
+            // 价格不变时也要计入，均价窗口和连续确认按搜索结果计数
+            if (!result.isEmpty()) {
+                double price = result.getFirstItem().getDouble("price");
+                long now = System.currentTimeMillis();
+                product.recordPrice(price, now);
+                triggered = trigger.evaluate(price, product.getTargetPrice(), now);
+            }
+        } else if (stale) {
+            // 有状态的条件不能对同一份结果重复求值
+            triggered = false;
+        }
+        handleNewListings();
+        long fingerprint = result.isEmpty() ? EMPTY_RESULT_FINGERPRINT : fingerprint(result.getFirstItem());
+        // 持续购买在上一轮买到后不跳过，结果不变时也继续下单
+        boolean keepBuying = lastPurchased && isContinuousBuying();
+        if (fingerprint == lastFingerprint && triggered == lastTriggered && !keepBuying) {
+            skippedCount.incrementAndGet();
+            return;
+        }
+
+        if (result.isEmpty()) {
+            notifyObservers("未找到商品");
+            lastFingerprint = fingerprint;
+            lastPurchased = false;
+            return;
+        }
+
+        ProductSnapshot snapshot = updateProductInfo(result.getFirstItem());
+
+        lastPurchased = shouldBuy(snapshot) && executePurchase();
+        // 只有处理成功才记录指纹，核对或购买失败时下一轮会重新处理
+        lastFingerprint = fingerprint;
+        lastTriggered = triggered;
+    }
+
+    // 由搜索源在取得结果时调用(可能是其他规则的轮询线程)，超过上限的部分丢弃
+    void offerNewListings(List<SearchFeed.NewListing> listings) {
+        synchronized (pendingListings) {
+            int room = MAX_PENDING_LISTINGS - pendingListings.size();
+            if (room > 0) {
+                pendingListings.addAll(room >= listings.size() ? listings : listings.subList(0, room));
+            }
+        }
+    }
+
+    // 取走搜索源分发来的新上架商品，每条都交给操作回调；回调失败时其余的照常处理，最后抛出第一个异常
+    private void handleNewListings() throws Exception {
+        List<SearchFeed.NewListing> listings;
+        synchronized (pendingListings) {
+            if (pendingListings.isEmpty()) {
+                return;
+            }
+            listings = new ArrayList<>(pendingListings);
+            pendingListings.clear();
+        }
+        Exception failure = null;
+        for (SearchFeed.NewListing listing : listings) {
+            logger.log(key, Logger.LogLevel.INFO, "发现新上架商品: {}, 价格: {}", listing.goodsId, listing.price);
+            eventBus.publish(MonitorEvent.newListing(product, product.getSnapshot(), listing.goodsId, listing.price));
+            if (operation != null) {
+                try {
+                    operation.onNewListing(product, listing.goodsId, listing.price);
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static long fingerprint(JSONObject item) {
+        long hash = Double.doubleToLongBits(item.getDouble("price"));
+        hash = mix(hash) ^ item.getLong("minPriceGoodsId");
+        hash = mix(hash) ^ item.getLong("archiveId");
+        hash = mix(hash);
+        return hash == NO_FINGERPRINT || hash == EMPTY_RESULT_FINGERPRINT ? 1L : hash;
+    }
+
+    private static long mix(long value) {
+        value *= 0x9E3779B97F4A7C15L;
+        return value ^ (value >>> 32);
+    }
+
+    private ProductSnapshot updateProductInfo(JSONObject item) {
+        double currentPrice = item.getDouble("price");
+        ProductSnapshot snapshot = product.publish(currentPrice,
+                item.getLong("minPriceGoodsId"),
+                item.getLong("archiveId"));
+        eventBus.publish(MonitorEvent.priceChanged(product, snapshot));
+        return snapshot;
+    }
+
+    private boolean shouldBuy(ProductSnapshot snapshot) throws Exception {
+        // 商品核对，同一商品ID在同组规则之间只请求一次
+        feed.verify(snapshot.getMinPriceGoodsId());
+        // 触发条件不满足
+        if (!triggered) {
+            product.setStatus("等待中");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean executePurchase() throws Exception {
+        if (operation == null) {
+            return false;
+        }
+        product.setStatus("正在执行操作");
+        operation.execute(product);
+        return true;
+    }
+
+    private boolean isContinuousBuying() {
+        return operation instanceof BuyOperation && ((BuyOperation) operation).isContinuousBuying();
+    }
+
+    private void retryOperation() {
+        int retryCount = 0;
+        while (retryCount < maxRetries && isRunning()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(retryDelay);
+                logger.log(key, Logger.LogLevel.WARN, "第{}次重试", retryCount + 1);
+                searchAndBuy(retryDelay);
+                return;
+            } catch (Exception e) {
+                retryCount++;
+                errorCount.incrementAndGet();
+                logger.log(key, Logger.LogLevel.ERROR, "重试失败({}/{}): {}",
+                        retryCount, maxRetries, e.getMessage());
+            }
+        }
+    }
+
+    private void handleError(Exception e) {
+        logger.log(key, "监控错误: " + e.getMessage(), Logger.LogLevel.ERROR);
+        eventBus.publish(MonitorEvent.error(product, product.getSnapshot(), e.getMessage()));
+    }
+
+    private void updateTotalRunningTime() {
+        if (startTime.get() > 0) {
+            long currentRunTime = System.currentTimeMillis() - startTime.get();
+            totalRunningTime.addAndGet(currentRunTime);
+            startTime.set(0);
+        }
+    }
+
+    public void setMonitorFrequency(long frequency) {
+        this.monitorFrequency = frequency;
+        logger.log(key,
+                String.format("更新监控频率: %d毫秒", frequency),
+                Logger.LogLevel.INFO);
+    }
+
+    public void setRetryParameters(int maxRetries, long retryDelay) {
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+        logger.log(key,
+                String.format("更新重试参数: 最大重试次数=%d, 重试延迟=%d毫秒",
+                        maxRetries, retryDelay),
+                Logger.LogLevel.INFO);
+    }
+
+    // 配置文件重新加载后只应用发生变化的项，界面上单独调整过的其他参数保持不变
+    void applyConfig(ConfigSnapshot previous, ConfigSnapshot current) {
+        if (current.getMonitorFrequencyMs() != previous.getMonitorFrequencyMs()) {
+            setMonitorFrequency(current.getMonitorFrequencyMs());
+        }
+        if (current.getMaxRetries() != previous.getMaxRetries()
+                || current.getRetryDelayMs() != previous.getRetryDelayMs()) {
+            setRetryParameters(current.getMaxRetries(), current.getRetryDelayMs());
+        }
+    }
+
+    public void setState(TaskState state) {
+        this.currentState = state;
+        state.handle(this);
+    }
+
+    public void setOperation(ProductOperation operation) {
+        this.operation = operation;
+        this.lastFingerprint = NO_FINGERPRINT;
+    }
+
+    // expression为null或空时使用默认条件price <= target；语法错误时抛出IllegalArgumentException，原条件不变
+    public void setTrigger(String expression) {
+        setTrigger(PriceTrigger.compile(expression));
+    }
+
+    // 已编译的触发条件只能交给一个监控使用
+    public void setTrigger(PriceTrigger compiled) {
+        this.trigger = compiled;
+        this.triggerStale = true;
+        this.lastFingerprint = NO_FINGERPRINT;
+        if (!compiled.isDefault()) {
+            logger.log(key, Logger.LogLevel.INFO, "触发条件: {}", compiled.getExpression());
+        }
+    }
+
+    // 默认条件返回null
+    public String getTriggerExpression() {
+        PriceTrigger current = trigger;
+        return current.isDefault() ? null : current.getExpression();
+    }
+
+    // 由ProductMonitorFactory.updateTargetPrice调用，标识已在工厂中改为updated.getKey()
+    void applyTargetPrice(WatchDefinition updated) {
+        definition = updated;
+        key = updated.getKey();
+        product.setRuleKey(key);
+        product.setTargetPrice(updated.getTargetPrice());
+        triggerStale = true;
+        lastFingerprint = NO_FINGERPRINT;
+        notifyObservers(String.format("更新目标价格为: %.2f", updated.getTargetPrice()));
+    }
+
+    public void notifyObservers(String message) {
+        if (message != null) {
+            eventBus.publish(MonitorEvent.message(product, product.getSnapshot(), message));
+        }
+    }
+
+    public void notifyStateChanged(String message) {
+        eventBus.publish(MonitorEvent.stateChanged(product, product.getSnapshot(), message));
+    }
+
+
+    // 从检查点恢复累计统计，只能在开始监控之前调用
+    void restoreStatistics(long checks, long errors, long skipped, long runningTimeMs, boolean wasStopped) {
+        stopped = wasStopped;
+        checkCount.set(checks);
+        errorCount.set(errors);
+        skippedCount.set(skipped);
+        totalRunningTime.set(runningTimeMs);
+    }
+
+    public void reset() {
+        stopMonitoring();
+        checkCount.set(0);
+        errorCount.set(0);
+        skippedCount.set(0);
+        lastFingerprint = NO_FINGERPRINT;
+        totalRunningTime.set(0);
+        product.setStatus("初始化");
+        notifyObservers("监控器已重置");
+    }
+
+    // 按监控清单中的模式设置操作，MONITOR模式不设置
+    public void applyMode(WatchMode mode) {
+        applyMode(mode, null);
+    }
+
+    // account为购买规则指定的下单账号，发布操作始终使用当前登录账号
+    public void applyMode(WatchMode mode, String account) {
+        switch (mode) {
+            case BUY_ONCE:
+                setOperation(new BuyOperation(false, account));
+                break;
+            case BUY_CONTINUOUS:
+                setOperation(new BuyOperation(true, account));
+                break;
+            case PRE_ORDER_SINGLE:
+                setPreOrderOperation(PreOrderOperation.PublishMode.SINGLE);
+                break;
+            case PRE_ORDER_TRIPLE:
+                setPreOrderOperation(PreOrderOperation.PublishMode.TRIPLE);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void setPreOrderOperation(PreOrderOperation.PublishMode mode) {
+        PreOrderOperation operation = new PreOrderOperation(mode);
+        setOperation(operation);
+        product.setStatus("准备发布: " + mode.getDescription());
+    }
+
+    public String getStatistics() {
+        ProductSnapshot snapshot = product.getSnapshot();
+        StringBuilder stats = new StringBuilder();
+        stats.append("监控统计信息:\n");
+        stats.append("商品名称: ").append(product.getName()).append("\n");
+        stats.append("目标价格: ").append(String.format("%.2f", product.getTargetPrice())).append("\n");
+        stats.append("当前价格: ").append(String.format("%.2f", snapshot.getCurrentPrice())).append("\n");
+        stats.append("当前状态: ").append(snapshot.getStatus()).append("\n");
+        stats.append("运行时间: ").append(formatRunningTime(getRunningTime())).append("\n");
+        stats.append("检查次数: ").append(checkCount.get()).append("\n");
+        stats.append("错误次数: ").append(errorCount.get()).append("\n");
+        stats.append("未变化跳过: ").append(skippedCount.get())
+                .append(String.format(" (%.2f%%)", calculateSkipRate())).append("\n");
+        SearchFeed currentFeed = SearchFeed.find(product.getName());
+        if (currentFeed != null) {
+            stats.append("新上架: ").append(currentFeed.getNewListingCount()).append("\n");
+            stats.append("同组规则: ").append(currentFeed.getSubscriberCount())
+                    .append(String.format(" (请求%d次, 复用%d次)", currentFeed.getRequestCount(),
+                            currentFeed.getSharedCount())).append("\n");
+        }
+        stats.append("价格统计: ").append(product.getPriceStatistics().getSummary()).append("\n");
+        PriceTrigger currentTrigger = trigger;
+        stats.append("触发条件: ").append(currentTrigger.getExpression())
+                .append(String.format(" (判断%d次, 满足%d次)", currentTrigger.getEvaluationCount(),
+                        currentTrigger.getFiredCount())).append("\n");
+        stats.append("错误率: ").append(String.format("%.2f%%", calculateErrorRate()));
+
+        if (operation instanceof BuyOperation) {
+            stats.append("\n\n").append(((BuyOperation) operation).getStatistics());
+        } else if (operation instanceof PreOrderOperation) {
+            stats.append("\n\n").append(((PreOrderOperation) operation).getStatistics());
+        }
+
+        return stats.toString();
+    }
+
+    private String formatRunningTime(long millis) {
+        long seconds = millis / 1000;
+        long minutes = seconds / 60;
+        long hours = minutes / 60;
+        return String.format("%d小时%d分钟%d秒",
+                hours,
+                minutes % 60,
+                seconds % 60);
+    }
+
+    private double calculateSkipRate() {
+        long totalChecks = checkCount.get();
+        if (totalChecks == 0) {
+            return 0.0;
+        }
+        return (skippedCount.get() * 100.0) / totalChecks;
+    }
+
+    private double calculateErrorRate() {
+        long totalChecks = checkCount.get();
+        if (totalChecks == 0) {
+            return 0.0;
+        }
+        return (errorCount.get() * 100.0) / totalChecks;
+    }
+
+    public long getRunningTime() {
+        long time = totalRunningTime.get();
+        long started = startTime.get();
+        if (isRunning() && started > 0) {
+            time += System.currentTimeMillis() - started;
+        }
+        return time;
+    }
+
+    // Getters
+    public boolean isRunning() { return running.get(); }
+    public boolean isPaused() { return paused; }
+    // 被停止过，或单次购买、发布已经完成
+    public boolean isStopped() { return stopped || (operation != null && operation.isCompleted()); }
+    public Product getProduct() { return product; }
+    public String getKey() { return key; }
+    // 当前的规则定义(模式取当前操作)
+    public WatchDefinition getDefinition() { return definition.withMode(getMode()); }
+    public TaskState getCurrentState() { return currentState; }
+    public long getMonitorFrequency() { return monitorFrequency; }
+    public String getAccount() {
+        return operation instanceof BuyOperation ? ((BuyOperation) operation).getAccount() : null;
+    }
+    public WatchMode getMode() {
+        if (operation instanceof BuyOperation) {
+            return ((BuyOperation) operation).isContinuousBuying() ? WatchMode.BUY_CONTINUOUS : WatchMode.BUY_ONCE;
+        }
+        if (operation instanceof PreOrderOperation) {
+            return ((PreOrderOperation) operation).getPublishMode() == PreOrderOperation.PublishMode.TRIPLE
+                    ? WatchMode.PRE_ORDER_TRIPLE : WatchMode.PRE_ORDER_SINGLE;
+        }
+        return WatchMode.MONITOR;
+    }
+    public long getCheckCount() { return checkCount.get(); }
+    public long getErrorCount() { return errorCount.get(); }
+    public long getSkippedCount() { return skippedCount.get(); }
+    public CompletableFuture<Long> getFirstPoll() { return firstPoll; }
+}
+
@@ -0,0 +1,135 @@
+package org.example.service;
+
+import org.example.config.Config;
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
+import org.example.service.trigger.PriceTrigger;
+import org.example.util.Logger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 监控按规则标识(名称|价格[|账号][|when:触发条件])保存，同一名称的多条规则运行时共用一个SearchFeed
+public class ProductMonitorFactory {
+    private static final Logger logger = Logger.getInstance();
+    private static final Map<String, ProductMonitor> monitors = new ConcurrentHashMap<>();
+
+    static {
+        // 登录等操作只修改令牌之类的配置，监控参数没变时不遍历监控
+        Config.getInstance().addListener((previous, current) -> {
+            if (current.getMonitorFrequencyMs() != previous.getMonitorFrequencyMs()
+                    || current.getMaxRetries() != previous.getMaxRetries()
+                    || current.getRetryDelayMs() != previous.getRetryDelayMs()) {
+                monitors.values().forEach(monitor -> monitor.applyConfig(previous, current));
+            }
+        });
+    }
+
+    // 仅监控价格的规则
+    public static ProductMonitor createMonitor(String name, double price) {
+        logger.log("Factory", String.format("创建监控: %s, 价格: %.2f", name, price));
+        WatchDefinition watch = new WatchDefinition(name, price, WatchMode.MONITOR);
+        return monitors.computeIfAbsent(watch.getKey(), k -> new ProductMonitor(watch));
+    }
+
+    // 批量创建并按清单设置操作模式和触发条件，不启动监控。已存在的规则(包括同一批中重复出现的)不会覆盖现有监控，
+    // 其标识计入重复列表；触发条件无法编译的规则不创建，计入无效列表。监控配置完成后才放入，
+    // 其他线程不会看到只设置了一半的监控。只输出一条汇总日志
+    public static BatchResult createMonitors(List<WatchDefinition> watches) {
+        List<ProductMonitor> created = new ArrayList<>(watches.size());
+        List<WatchDefinition> createdWatches = new ArrayList<>(watches.size());
+        List<String> duplicates = new ArrayList<>();
+        List<String> invalid = new ArrayList<>();
+        for (WatchDefinition watch : watches) {
+            String key = watch.getKey();
+            if (monitors.containsKey(key)) {
+                duplicates.add(key);
+                continue;
+            }
+            PriceTrigger trigger;
+            try {
+                trigger = PriceTrigger.compile(watch.getTrigger());
+            } catch (IllegalArgumentException e) {
+                logger.log("Factory", Logger.LogLevel.WARN, "规则{}的触发条件无效: {}", key, e.getMessage());
+                invalid.add(key);
+                continue;
+            }
+            ProductMonitor monitor = new ProductMonitor(watch);
+            monitor.applyMode(watch.getMode(), watch.getAccount());
+            monitor.setTrigger(trigger);
+            if (monitors.putIfAbsent(key, monitor) != null) {
+                duplicates.add(key);
+                continue;
+            }
+            created.add(monitor);
+            createdWatches.add(watch);
+        }
+        logger.log("Factory", Logger.LogLevel.INFO, "批量创建监控: 新建{}个, 重复{}个, 无效{}个",
+                created.size(), duplicates.size(), invalid.size());
+        return new BatchResult(createdWatches, created, duplicates, invalid);
+    }
+
+    // 目标价格是规则标识的一部分，修改后监控改用新标识登记并返回新标识。
+    // 价格无效或新标识已被其他规则占用时抛出IllegalArgumentException，原价格和标识不变
+    public static String updateTargetPrice(ProductMonitor monitor, double newPrice) {
+        if (!(newPrice > 0)) {
+            throw new IllegalArgumentException("价格必须大于0");
+        }
+        WatchDefinition updated = monitor.getDefinition().withTargetPrice(newPrice);
+        String oldKey = monitor.getKey();
+        String newKey = updated.getKey();
+        if (!newKey.equals(oldKey)) {
+            if (monitors.putIfAbsent(newKey, monitor) != null) {
+                throw new IllegalArgumentException("相同价格的规则已存在: " + newKey);
+            }
+            monitors.remove(oldKey, monitor);
+        }
+        monitor.applyTargetPrice(updated);
+        logger.log("Factory", Logger.LogLevel.INFO, "修改目标价格: {} -> {}", oldKey, newKey);
+        return newKey;
+    }
+
+    public static void removeMonitor(String key) {
+        ProductMonitor monitor = monitors.remove(key);
+        if (monitor != null) {
+            monitor.stopMonitoring();
+            logger.log("Factory", "移除监控: " + key);
+        }
+    }
+
+    public static ProductMonitor getMonitor(String key) {
+        return monitors.get(key);
+    }
+
+    public static Map<String, ProductMonitor> getAllMonitors() {
+        return new ConcurrentHashMap<>(monitors);
+    }
+
+    public static void shutdown() {
+        monitors.values().forEach(ProductMonitor::stopMonitoring);
+        monitors.clear();
+        logger.log("Factory", "关闭所有监控");
+    }
+
+    public static final class BatchResult {
+        private final List<WatchDefinition> watches;
+        private final List<ProductMonitor> monitors;
+        private final List<String> duplicates;
+        private final List<String> invalid;
+
+        private BatchResult(List<WatchDefinition> watches, List<ProductMonitor> monitors,
+                            List<String> duplicates, List<String> invalid) {
+            this.watches = watches;
+            this.monitors = monitors;
+            this.duplicates = duplicates;
+            this.invalid = invalid;
+        }
+
+        // 新建的监控与对应的清单项，下标一一对应
+        public List<WatchDefinition> getWatches() { return watches; }
+        public List<ProductMonitor> getMonitors() { return monitors; }
+        public List<String> getDuplicates() { return duplicates; }
+        public List<String> getInvalid() { return invalid; }
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.example.service;
 
 import org.example.config.Config;
 import org.example.model.ProductInfo;
+import org.example.service.session.SessionManager;
 import org.example.service.strategy.PreOrderOperation;
 import org.example.util.HttpUtil;
 import org.example.util.Logger;
@@ -91,7 +92,7 @@ public class ProductRelease {
         JSONObject response = HttpUtil.post(
                 config.get("SEARCH_URL"),
                 searchBody,
-                config.get("TOKEN")
+                SessionManager.getInstance().getAuthorization()
         );
 
         validateResponse(response, "搜索失败");
@@ -109,7 +110,7 @@ public class ProductRelease {
         JSONObject response = HttpUtil.post(
                 config.get("ARCHIVE_URL"),
                 requestBody,
-                config.get("TOKEN")
+                SessionManager.getInstance().getAuthorization()
         );
 
         validateResponse(response, "获取商品信息失败");
@@ -123,7 +124,7 @@ public class ProductRelease {
         JSONObject response = HttpUtil.post(
                 config.get("PRE_CREATE_URL"),
                 requestBody,
-                config.get("TOKEN")
+                SessionManager.getInstance().getAuthorization()
         );
 
         validateResponse(response, "创建预购订单失败");
@@ -146,7 +147,7 @@ public class ProductRelease {
         return HttpUtil.post(
                 config.get("CREATE_URL"),
                 createBody,
-                config.get("TOKEN")
+                SessionManager.getInstance().getAuthorization()
         );
     }
 
@@ -159,7 +160,7 @@ public class ProductRelease {
         JSONObject response = HttpUtil.post(
                 config.get("UNIFIED_PAY_URL"),
                 payBody,
-                config.get("TOKEN")
+                SessionManager.getInstance().getAuthorization()
         );
 
         validateResponse(response, "支付确认失败");
@@ -200,9 +201,7 @@ public class ProductRelease {
         private long calculateAuctionEndTime(String issueTime) {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             LocalDateTime dateTime = LocalDateTime.parse(issueTime, formatter);
-            LocalDateTime delayedTime = dateTime.plusHours(
-                    Integer.parseInt(Config.getInstance().get("DELAY_HOURS"))
-            );
+            LocalDateTime delayedTime = dateTime.plusHours(Config.getInstance().getSnapshot().getDelayHours());
             return delayedTime.atZone(ZoneId.systemDefault())
                     .toInstant()
                     .toEpochMilli() / 1000;
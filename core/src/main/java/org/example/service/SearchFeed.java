@@ -0,0 +1,238 @@
+package org.example.service;
+
+import org.example.config.Config;
+import org.example.service.session.AccountPool;
+import org.example.service.session.Session;
+import org.example.service.session.SessionManager;
+import org.example.util.HttpUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 监控组：同一搜索词的所有规则(不同目标价格、购买或发布、不同账号)共用一个搜索源。
+// 同一时刻只有一个请求在进行，其他规则等待并拿到同一份解析结果；结果在调用方的一个轮询周期内复用，
+// 因此增加规则不会增加搜索和商品核对请求。新上架检测也在这里只做一次，结果分发给所有订阅的规则
+public class SearchFeed {
+    private static final int DEFAULT_LISTING_GENERATION_SIZE = 4096;
+    private static final Map<String, SearchFeed> feeds = new ConcurrentHashMap<>();
+    // 所有搜索源共用的结果序号，搜索源被移除后重建也不会与之前的序号重复
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String term;
+    private final Config config = Config.getInstance();
+    private final SessionManager sessionManager = SessionManager.getInstance();
+    private final AccountPool accountPool = AccountPool.getInstance();
+    private final Set<ProductMonitor> subscribers = ConcurrentHashMap.newKeySet();
+    private final NewListingDetector listingDetector;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong sharedCount = new AtomicLong();
+    // 以下字段只在持有this锁时访问
+    private Result latest;
+    private long latestTime;
+    private RuntimeException latestError;
+    private long verifiedGoodsId;
+    private RuntimeException verifyError;
+
+    private SearchFeed(String term) {
+        this.term = term;
+        this.listingDetector = new NewListingDetector(
+                config.getInt("LISTING_GENERATION_SIZE", DEFAULT_LISTING_GENERATION_SIZE));
+    }
+
+    // 监控开始轮询时订阅，停止时退订；最后一个规则退订后搜索源被移除
+    static SearchFeed subscribe(String term, ProductMonitor monitor) {
+        return feeds.compute(term, (k, existing) -> {
+            SearchFeed feed = existing != null ? existing : new SearchFeed(k);
+            feed.subscribers.add(monitor);
+            return feed;
+        });
+    }
+
+    static void unsubscribe(SearchFeed feed, ProductMonitor monitor) {
+        feeds.computeIfPresent(feed.term, (k, existing) -> {
+            existing.subscribers.remove(monitor);
+            return existing.subscribers.isEmpty() ? null : existing;
+        });
+    }
+
+    public static SearchFeed find(String term) {
+        return feeds.get(term);
+    }
+
+    // 距上次请求不足maxAgeMs时直接返回上次的结果(或上次的错误)，否则由当前线程发起请求
+    synchronized Result fetch(long maxAgeMs) {
+        if (latestTime > 0 && System.currentTimeMillis() - latestTime < maxAgeMs) {
+            sharedCount.incrementAndGet();
+            if (latestError != null) {
+                throw latestError;
+            }
+            return latest;
+        }
+        requestCount.incrementAndGet();
+        try {
+            JSONArray data = search();
+            List<JSONObject> items = new ArrayList<>(data.length());
+            for (int i = 0; i < data.length(); i++) {
+                items.add(data.getJSONObject(i));
+            }
+            latest = new Result(SEQUENCE.incrementAndGet(), items);
+            latestError = null;
+            // 每个规则按自己的频率轮询，可能看不到这份结果，新上架商品直接交给所有订阅的规则
+            List<NewListing> listings = detectNewListings(items);
+            if (!listings.isEmpty()) {
+                for (ProductMonitor subscriber : subscribers) {
+                    subscriber.offerNewListings(listings);
+                }
+            }
+            return latest;
+        } catch (RuntimeException e) {
+            latestError = e;
+            throw e;
+        } catch (Exception e) {
+            latestError = new MonitorException(e.getMessage(), e);
+            throw latestError;
+        } finally {
+            latestTime = System.currentTimeMillis();
+        }
+    }
+
+    // 商品核对：同一商品ID只核对一次，核对失败的结果也会复用，直到出现新的商品ID
+    synchronized void verify(long goodsId) {
+        if (goodsId == verifiedGoodsId) {
+            sharedCount.incrementAndGet();
+            if (verifyError != null) {
+                throw verifyError;
+            }
+            return;
+        }
+        requestCount.incrementAndGet();
+        verifyError = null;
+        try {
+            JSONObject body = new JSONObject().put("goodsId", goodsId);
+            Session session = accountPool.nextSearchSession();
+            JSONObject response = HttpUtil.post(config.get("GOODS_DETAILS"), body, authorizationOf(session));
+            if (SessionManager.isAuthFailure(response)) {
+                sessionManager.reportAuthFailure(session);
+            }
+            if (response.getInt("code") != 200) {
+                throw new MonitorException("商品核对失败: " + response.getString("msg"));
+            }
+            if (!term.equals(response.getJSONObject("data").getString("name"))) {
+                verifyError = new MonitorException("商品核对不一致");
+                verifiedGoodsId = goodsId;
+                throw verifyError;
+            }
+            verifiedGoodsId = goodsId;
+        } catch (MonitorException e) {
+            throw e;
+        } catch (Exception e) {
+            // 网络等临时错误不缓存，下次重新核对
+            throw new MonitorException(e.getMessage(), e);
+        }
+    }
+
+    private JSONArray search() throws Exception {
+        JSONObject searchBody = new JSONObject()
+                .put("platformIds", new JSONArray())
+                .put("pageNum", 1)
+                .put("type", "")
+                .put("search", term)
+                .put("isTransfer", "")
+                .put("goodsTypeList", new JSONArray().put(2).put(3));
+
+        Session session = accountPool.nextSearchSession();
+        JSONObject response = HttpUtil.post(config.get("SEARCH_URL"), searchBody, authorizationOf(session));
+        if (SessionManager.isAuthFailure(response)) {
+            sessionManager.reportAuthFailure(session);
+        }
+        if (response.getInt("code") != 200) {
+            throw new MonitorException("搜索失败: " + response.getString("msg"));
+        }
+        return response.getJSONArray("data");
+    }
+
+    // 只统计与首条结果同一藏品的商品ID，首轮搜索仅建立基线
+    private List<NewListing> detectNewListings(List<JSONObject> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<NewListing> found = null;
+        long archiveId = items.get(0).optLong("archiveId");
+        for (JSONObject item : items) {
+            if (item.optLong("archiveId") != archiveId) {
+                continue;
+            }
+            long goodsId = item.optLong("minPriceGoodsId");
+            if (listingDetector.offer(goodsId)) {
+                if (found == null) {
+                    found = new ArrayList<>();
+                }
+                found.add(new NewListing(goodsId, item.optDouble("price")));
+            }
+        }
+        listingDetector.markPrimed();
+        return found != null ? found : Collections.emptyList();
+    }
+
+    private String authorizationOf(Session session) {
+        return session != null ? session.getAuthorization() : sessionManager.getAuthorization();
+    }
+
+    public String getTerm() { return term; }
+    public int getSubscriberCount() { return subscribers.size(); }
+    public long getRequestCount() { return requestCount.get(); }
+    public long getSharedCount() { return sharedCount.get(); }
+    public long getNewListingCount() { return listingDetector.getNewListingCount(); }
+
+    // 所有搜索源的汇总，用于统计输出
+    public static String getSummary() {
+        long requests = 0;
+        long shared = 0;
+        int rules = 0;
+        for (SearchFeed feed : feeds.values()) {
+            requests += feed.getRequestCount();
+            shared += feed.getSharedCount();
+            rules += feed.getSubscriberCount();
+        }
+        return String.format("搜索源: %d个, 规则: %d个, 请求: %d次, 复用结果: %d次",
+                feeds.size(), rules, requests, shared);
+    }
+
+    // 一次搜索的解析结果，在订阅的规则之间共享，只读
+    static final class Result {
+        private final long sequence;
+        private final List<JSONObject> items;
+
+        private Result(long sequence, List<JSONObject> items) {
+            this.sequence = sequence;
+            this.items = Collections.unmodifiableList(items);
+        }
+
+        long getSequence() { return sequence; }
+        List<JSONObject> getItems() { return items; }
+        boolean isEmpty() { return items.isEmpty(); }
+        JSONObject getFirstItem() {
+            if (isEmpty()) {
+                throw new IllegalStateException("搜索结果为空");
+            }
+            return items.get(0);
+        }
+    }
+
+    static final class NewListing {
+        final long goodsId;
+        final double price;
+
+        NewListing(long goodsId, double price) {
+            this.goodsId = goodsId;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.service;
+
+import org.example.config.Config;
+import org.example.model.AddressItem;
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
+import org.example.service.session.AccountPool;
+import org.example.service.session.Session;
+import org.example.service.session.SessionManager;
+import org.example.util.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 启动编排：配置加载、会话校验、收货地址、账号池和监控恢复按依赖关系并行执行。
+//
+//   配置 ─┬─ 会话校验 ─┬─ 主账号地址 ──┐
+//         │            └─ 其他账号地址 ─┼─ 购买模式的监控开始轮询
+//         │                             │
+//         ├─ 读取监控清单 ─┬─ 创建监控 ─┴─ 其他监控在会话校验后开始轮询
+//         └─ 读取检查点 ───┘
+//
+// 监控清单存在时以清单为准，检查点只提供最近价格和累计统计；没有清单时按检查点恢复全部监控。
+// 每个监控只等待自己需要的步骤，按相位错开第一次轮询，并记录从进程启动到首次轮询的耗时
+public class StartupOrchestrator {
+    private static final Logger logger = Logger.getInstance();
+    private static final int THREADS = 4;
+
+    // 回调在启动线程中执行，界面需要自行切换到EDT
+    public interface Listener {
+        default void onSessionValidated(boolean valid) {}
+        default void onAddressesLoaded(List<AddressItem> addresses) {}
+        // 所有恢复的监控一次性回调，下标一一对应
+        default void onMonitorsRestored(List<WatchDefinition> watches, List<ProductMonitor> monitors) {}
+    }
+
+    private final Path watchFile;
+    private final boolean startIdleWatches;
+    private final Listener listener;
+    private final long processStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "Startup-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private StartupOrchestrator(Builder builder) {
+        this.watchFile = builder.watchFile;
+        this.startIdleWatches = builder.startIdleWatches;
+        this.listener = builder.listener;
+    }
+
+    public static class Builder {
+        private final Path watchFile;
+        private boolean startIdleWatches = false;
+        private Listener listener = new Listener() {};
+
+        public Builder(Path watchFile) {
+            this.watchFile = watchFile;
+        }
+
+        // MONITOR模式的监控是否也开始轮询；界面中这类商品只加入列表，等待用户选择操作
+        public Builder startIdleWatches(boolean startIdleWatches) {
+            this.startIdleWatches = startIdleWatches;
+            return this;
+        }
+
+        public Builder listener(Listener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public StartupOrchestrator build() {
+            return new StartupOrchestrator(this);
+        }
+    }
+
+    // 返回的future在所有监控都已启动(或因前置步骤失败而放弃)后完成
+    public CompletableFuture<Void> start() {
+        CompletableFuture<Config> config = CompletableFuture.supplyAsync(() -> {
+            Config loaded = Config.getInstance();
+            logStage("配置加载");
+            return loaded;
+        }, executor);
+        CompletableFuture<Boolean> session = config.thenApplyAsync(this::validateSession, executor);
+        CompletableFuture<WatchListStore.WatchList> watchList = config.thenApplyAsync(c -> loadWatchList(), executor);
+        CompletableFuture<List<MonitorCheckpoint.Entry>> checkpoint =
+                config.thenApplyAsync(c -> loadCheckpoint(), executor);
+        CompletableFuture<List<AddressItem>> addresses = session.thenCombineAsync(watchList, this::loadAddresses, executor);
+        CompletableFuture<Void> accounts = session.thenAcceptAsync(this::refreshOtherAccounts, executor);
+        CompletableFuture<Void> purchaseReady = CompletableFuture.allOf(addresses, accounts);
+
+        return watchList.thenCombineAsync(checkpoint,
+                        (list, entries) -> restoreMonitors(list, entries, session, purchaseReady), executor)
+                .thenCompose(restored -> restored)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.log("Startup", "启动编排失败: " + error.getMessage(), Logger.LogLevel.ERROR);
+                    }
+                    executor.shutdown();
+                    MonitorCheckpoint.getInstance().start();
+                });
+    }
+
+    private boolean validateSession(Config config) {
+        boolean valid = false;
+        if (config.isUserLoggedIn()) {
+            UserLogin.getInstance().setLoginInfo(config.get(Config.USER_TOKEN),
+                    config.get(Config.USER_NICKNAME), config.get(Config.USER_PHONE));
+            valid = SessionManager.getInstance().validatePrimary();
+        }
+        logStage(valid ? "会话校验" : "会话校验(未登录或已失效)");
+        listener.onSessionValidated(valid);
+        return valid;
+    }
+
+    private WatchListStore.WatchList loadWatchList() {
+        WatchListStore.WatchList list = new WatchListStore.WatchList(List.of(), 0);
+        if (watchFile != null && Files.exists(watchFile)) {
+            try {
+                list = WatchListStore.load(watchFile);
+            } catch (Exception e) {
+                logger.log("Startup", "读取监控清单失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            }
+        }
+        logStage("读取监控清单(" + list.getWatches().size() + "项)");
+        return list;
+    }
+
+    private List<MonitorCheckpoint.Entry> loadCheckpoint() {
+        List<MonitorCheckpoint.Entry> entries = MonitorCheckpoint.getInstance().load();
+        logStage("读取检查点(" + entries.size() + "项)");
+        return entries;
+    }
+
+    private List<AddressItem> loadAddresses(boolean sessionValid, WatchListStore.WatchList list) {
+        if (!sessionValid) {
+            throw new IllegalStateException("会话不可用");
+        }
+        try {
+            List<AddressItem> loaded = UserLogin.getInstance().getAddresses();
+            Session primary = SessionManager.getInstance().getPrimary();
+            if (primary != null && list.getAddressId() != 0) {
+                primary.setSelectedAddressId(list.getAddressId());
+            }
+            logStage("获取收货地址");
+            listener.onAddressesLoaded(loaded);
+            return loaded;
+        } catch (Exception e) {
+            logger.log("Startup", "获取地址列表失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            throw new IllegalStateException("获取地址列表失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void refreshOtherAccounts(boolean sessionValid) {
+        if (!sessionValid) {
+            return;
+        }
+        AccountPool accountPool = AccountPool.getInstance();
+        Session primary = SessionManager.getInstance().getPrimary();
+        for (Session session : accountPool.getActiveSessions()) {
+            if (session != primary) {
+                accountPool.refreshAddresses(session);
+            }
+        }
+        logStage("刷新账号池地址");
+    }
+
+    private CompletableFuture<Void> restoreMonitors(WatchListStore.WatchList list,
+                                                   List<MonitorCheckpoint.Entry> entries,
+                                                   CompletableFuture<Boolean> session,
+                                                   CompletableFuture<Void> purchaseReady) {
+        Map<String, MonitorCheckpoint.Entry> states = new HashMap<>(entries.size() * 2);
+        List<WatchDefinition> watches = new ArrayList<>(entries.size());
+        for (MonitorCheckpoint.Entry entry : entries) {
+            states.put(entry.getDefinition().getKey(), entry);
+            watches.add(entry.getDefinition());
+        }
+        if (watchFile != null && Files.exists(watchFile)) {
+            watches = list.getWatches();
+        }
+
+        ProductMonitorFactory.BatchResult batch = ProductMonitorFactory.createMonitors(watches);
+        for (String duplicate : batch.getDuplicates()) {
+            logger.log("Startup", "重复的监控项已忽略: " + duplicate, Logger.LogLevel.WARN);
+        }
+        for (String invalid : batch.getInvalid()) {
+            logger.log("Startup", "触发条件无效的监控项已忽略: " + invalid, Logger.LogLevel.WARN);
+        }
+
+        List<WatchDefinition> toStart = new ArrayList<>(batch.getMonitors().size());
+        List<ProductMonitor> monitors = new ArrayList<>(batch.getMonitors().size());
+        int restoredStates = 0;
+        for (int i = 0; i < batch.getMonitors().size(); i++) {
+            WatchDefinition watch = batch.getWatches().get(i);
+            ProductMonitor monitor = batch.getMonitors().get(i);
+            MonitorCheckpoint.Entry state = states.get(watch.getKey());
+            if (state != null) {
+                state.applyTo(monitor);
+                restoredStates++;
+            }
+            // 上次退出前已停止或单次操作已完成的监控保持停止
+            if ((watch.getMode() == WatchMode.MONITOR && !startIdleWatches) || (state != null && state.isStopped())) {
+                continue;
+            }
+            toStart.add(watch);
+            monitors.add(monitor);
+        }
+
+        // 第一次轮询的相位在一个监控周期内均匀分布
+        long frequency = Config.getInstance().getSnapshot().getMonitorFrequencyMs();
+        List<CompletableFuture<Void>> starts = new ArrayList<>(toStart.size());
+        // 前置步骤完成的线程各不相同，并发添加
+        List<CompletableFuture<Long>> firstPolls = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < toStart.size(); i++) {
+            WatchDefinition watch = toStart.get(i);
+            ProductMonitor monitor = monitors.get(i);
+            long phase = frequency * i / toStart.size();
+            CompletableFuture<?> prerequisites = watch.getMode().isBuying() ? purchaseReady : session;
+            starts.add(prerequisites.handle((result, error) -> {
+                if (error != null && watch.getMode().isBuying()) {
+                    logger.log("Startup", Logger.LogLevel.ERROR, "未启动{}: 购买所需的会话或地址不可用",
+                            watch.getName());
+                    return null;
+                }
+                monitor.startMonitoring(phase);
+                firstPolls.add(monitor.getFirstPoll().thenApply(timestamp -> {
+                    long elapsed = timestamp - processStartTime;
+                    logger.log(watch.getName(), Logger.LogLevel.INFO, "首次轮询完成，距进程启动{}毫秒", elapsed);
+                    return elapsed;
+                }));
+                return null;
+            }));
+        }
+        listener.onMonitorsRestored(batch.getWatches(), batch.getMonitors());
+        logStage("恢复监控(" + monitors.size() + "个待启动，" + restoredStates + "个沿用检查点统计)");
+
+        return CompletableFuture.allOf(starts.toArray(new CompletableFuture<?>[0]))
+                .thenRun(() -> {
+                    logStage("启动全部监控线程");
+                    reportFirstPolls(firstPolls);
+                });
+    }
+
+    // 所有已启动的监控完成首次轮询后输出汇总
+    private static void reportFirstPolls(List<CompletableFuture<Long>> firstPolls) {
+        if (firstPolls.isEmpty()) {
+            return;
+        }
+        CompletableFuture.allOf(firstPolls.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            long fastest = Long.MAX_VALUE;
+            long slowest = 0;
+            for (CompletableFuture<Long> firstPoll : firstPolls) {
+                long elapsed = firstPoll.join();
+                fastest = Math.min(fastest, elapsed);
+                slowest = Math.max(slowest, elapsed);
+            }
+            logger.log("Startup", Logger.LogLevel.INFO, "{}个监控已完成首次轮询，距进程启动最快{}毫秒，最慢{}毫秒",
+                    firstPolls.size(), fastest, slowest);
+        });
+    }
+
+    private void logStage(String stage) {
+        logger.log("Startup", Logger.LogLevel.INFO, "{}完成，距进程启动{}毫秒",
+                stage, System.currentTimeMillis() - processStartTime);
+    }
+}
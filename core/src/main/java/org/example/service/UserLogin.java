@@ -2,6 +2,9 @@ package org.example.service;
 
 import org.example.config.Config;
 import org.example.model.AddressItem;
+import org.example.service.session.AccountPool;
+import org.example.service.session.Session;
+import org.example.service.session.SessionManager;
 import org.example.util.HttpUtil;
 import org.example.util.Logger;
 import org.json.JSONArray;
@@ -9,6 +12,7 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class UserLogin {
     private static final Logger logger = Logger.getInstance();
@@ -33,26 +37,10 @@ public class UserLogin {
     public boolean login(String phone, String code) throws Exception {
         validateLoginInput(phone, code);
 
-        JSONObject requestBody = new JSONObject()
-                .put("phone", phone)
-                .put("code", code)
-                .put("client", Config.getInstance().get("CLIENT_TYPE"));
-
         try {
-            JSONObject response = HttpUtil.post(
-                    Config.getInstance().get("LOGIN_URL"),
-                    requestBody,
-                    ""
-            );
-
-            if (response.getInt("code") == 200) {
-                handleSuccessfulLogin(response.getJSONObject("data"));
-                Config.getInstance().set("LOGIN_INFO", String.valueOf(response.getJSONObject("data")));
-                logger.log("Login", "登录成功: " + nickName, Logger.LogLevel.INFO);
-                return true;
-            } else {
-                throw new Exception("登录失败: " + response.getString("msg"));
-            }
+            handleSuccessfulLogin(requestLogin(phone, code));
+            logger.log("Login", "登录成功: " + nickName, Logger.LogLevel.INFO);
+            return true;
         } catch (Exception e) {
             logout();
             logger.log("Login", "登录失败: " + e.getMessage(), Logger.LogLevel.ERROR);
@@ -60,6 +48,38 @@ public class UserLogin {
         }
     }
 
+    // 登录附加账号并加入账号池，不影响当前登录账号
+    public Session loginAdditional(String phone, String code) throws Exception {
+        validateLoginInput(phone, code);
+
+        try {
+            Session session = AccountPool.getInstance().addAccount(requestLogin(phone, code));
+            logger.log("Login", "附加账号登录成功: " + session.getNickName(), Logger.LogLevel.INFO);
+            return session;
+        } catch (Exception e) {
+            logger.log("Login", "附加账号登录失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            throw e;
+        }
+    }
+
+    private JSONObject requestLogin(String phone, String code) throws Exception {
+        JSONObject requestBody = new JSONObject()
+                .put("phone", phone)
+                .put("code", code)
+                .put("client", Config.getInstance().get("CLIENT_TYPE"));
+
+        JSONObject response = HttpUtil.post(
+                Config.getInstance().get("LOGIN_URL"),
+                requestBody,
+                ""
+        );
+
+        if (response.getInt("code") != 200) {
+            throw new Exception("登录失败: " + response.getString("msg"));
+        }
+        return response.getJSONObject("data");
+    }
+
     private void validateLoginInput(String phone, String code) {
         if (phone == null || phone.isEmpty() || code == null || code.isEmpty()) {
             throw new IllegalArgumentException("手机号和验证码不能为空");
@@ -72,37 +92,65 @@ public class UserLogin {
         this.phone = data.getString("phone");
 
         Config config = Config.getInstance();
-        config.set("TOKEN", "Bearer " + this.token);
-        config.set("USER_NICKNAME", this.nickName);
-        config.set("USER_PHONE", this.phone);
+        config.update(Map.of(
+                "TOKEN", "Bearer " + this.token,
+                "USER_NICKNAME", this.nickName,
+                "USER_PHONE", this.phone,
+                "LOGIN_INFO", String.valueOf(data)));
         config.saveConfig();
+
+        SessionManager sessionManager = SessionManager.getInstance();
+        sessionManager.activate(this.token, this.nickName, this.phone, String.valueOf(data));
+        sessionManager.start();
     }
 
     public List<AddressItem> getAddresses() throws Exception {
         validateLoginStatus();
 
-        JSONObject requestBody = createAddressRequestBody();
+        JSONObject requestBody = createAddressRequestBody(this.phone);
+        JSONObject response = HttpUtil.post(
+                Config.getInstance().get("ADDRESS_URL"),
+                requestBody,
+                currentToken()
+        );
+
+        List<AddressItem> addresses = parseAddressResponse(response);
+        Session session = SessionManager.getInstance().getPrimary();
+        if (session != null) {
+            session.setAddresses(addresses);
+        }
+        return addresses;
+    }
+
+    public List<AddressItem> getAddresses(Session session) throws Exception {
+        JSONObject requestBody = createAddressRequestBody(session.getPhone());
         JSONObject response = HttpUtil.post(
                 Config.getInstance().get("ADDRESS_URL"),
                 requestBody,
-                token
+                session.getToken()
         );
 
         return parseAddressResponse(response);
     }
 
+    // 会话管理器可能已在后台刷新令牌
+    private String currentToken() {
+        Session session = SessionManager.getInstance().getPrimary();
+        return session != null && session.getToken() != null ? session.getToken() : token;
+    }
+
     private void validateLoginStatus() {
         if (token == null || token.isEmpty()) {
             throw new IllegalStateException("用户未登录");
         }
     }
 
-    private JSONObject createAddressRequestBody() {
+    private JSONObject createAddressRequestBody(String phone) {
         return new JSONObject()
                 .put("id", "")
                 .put("platformName", "鲸探")
                 .put("remark", "")
-                .put("address", this.phone)
+                .put("address", phone)
                 .put("platformId", Config.getInstance().get("PLATFORM_ID"))
                 .put("isDefault", 0);
     }
@@ -148,6 +196,7 @@ public class UserLogin {
         this.token = null;
         this.nickName = null;
         this.phone = null;
+        SessionManager.getInstance().deactivate();
         logger.log("Login", "用户已登出", Logger.LogLevel.INFO);
     }
 
@@ -155,6 +204,10 @@ public class UserLogin {
         this.token = token;
         this.nickName = nickName;
         this.phone = phone;
+
+        SessionManager sessionManager = SessionManager.getInstance();
+        sessionManager.activate(token, nickName, phone, Config.getInstance().get("LOGIN_INFO"));
+        sessionManager.start();
     }
 
     // Getters
@@ -0,0 +1,279 @@
+package org.example.service;
+
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
+import org.example.service.trigger.PriceTrigger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 读写监控清单，支持两种JSON写法和CSV:
+// [{"name": "商品", "price": 12.5, "mode": "BUY_ONCE", "trigger": "price <= target && drop(20) >= 5"}, ...]
+// {"addressId": 123, "watches": [...]}
+// 商品,12.5,BUY_ONCE   (每行: 名称,目标价格[,模式[,下单账号[,触发条件]]]，可带表头，#开头的行为注释)
+// 同一名称可以出现多次(不同价格、模式、账号或触发条件)，这几项完全相同的才算重复
+public class WatchListStore {
+    private static final Set<String> CSV_HEADER_NAMES = Set.of("name", "名称", "商品名称");
+
+    // 任何一项无效都会抛出异常，用于启动时读取清单
+    public static WatchList load(Path file) throws IOException {
+        Parsed parsed = parse(file);
+        List<Validated> results = validate(parsed.rows);
+        List<WatchDefinition> watches = new ArrayList<>(results.size());
+        for (Validated result : results) {
+            if (result.error != null) {
+                throw new IllegalArgumentException(result.error);
+            }
+            watches.add(result.watch);
+        }
+        return new WatchList(watches, parsed.addressId);
+    }
+
+    // 批量导入：无效的行记录在错误列表中，其余照常导入
+    public static ImportResult importFile(Path file) throws IOException {
+        List<Validated> results = validate(parse(file).rows);
+        List<WatchDefinition> watches = new ArrayList<>(results.size());
+        List<String> errors = new ArrayList<>();
+        for (Validated result : results) {
+            if (result.error != null) {
+                errors.add(result.error);
+            } else {
+                watches.add(result.watch);
+            }
+        }
+        return new ImportResult(watches, errors);
+    }
+
+    // 先写临时文件再原子替换，写入中断不会破坏原清单
+    public static void save(Path file, WatchList watchList) throws IOException {
+        JSONArray watches = new JSONArray();
+        for (WatchDefinition watch : watchList.getWatches()) {
+            JSONObject item = new JSONObject()
+                    .put("name", watch.getName())
+                    .put("price", watch.getTargetPrice())
+                    .put("mode", watch.getMode().name());
+            if (watch.getAccount() != null) {
+                item.put("account", watch.getAccount());
+            }
+            if (watch.getTrigger() != null) {
+                item.put("trigger", watch.getTrigger());
+            }
+            watches.put(item);
+        }
+        JSONObject root = new JSONObject()
+                .put("addressId", watchList.getAddressId())
+                .put("watches", watches);
+
+        Path target = file.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, root.toString(2), StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Parsed parse(Path file) throws IOException {
+        String text = Files.readString(file, StandardCharsets.UTF_8).trim();
+        if (text.startsWith("\uFEFF")) { // Excel导出的CSV带BOM
+            text = text.substring(1).trim();
+        }
+        if (!text.startsWith("[") && !text.startsWith("{")) {
+            return new Parsed(parseCsv(text), 0);
+        }
+        try {
+            if (text.startsWith("[")) {
+                return new Parsed(parseJson(new JSONArray(text)), 0);
+            }
+            JSONObject root = new JSONObject(text);
+            return new Parsed(parseJson(root.getJSONArray("watches")), root.optLong("addressId", 0));
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("监控清单格式错误: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Row> parseJson(JSONArray array) {
+        List<Row> rows = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.optJSONObject(i);
+            String label = String.format("第%d项", i + 1);
+            if (item == null) {
+                rows.add(new Row(label, null, null, null, null, null));
+                continue;
+            }
+            Object price = item.opt("price");
+            rows.add(new Row(label, item.optString("name", null), price != null ? price.toString() : null,
+                    item.optString("mode", null), item.optString("account", null),
+                    item.optString("trigger", null)));
+        }
+        return rows;
+    }
+
+    private static List<Row> parseCsv(String text) {
+        String[] lines = text.split("\\r?\\n");
+        List<Row> rows = new ArrayList<>(lines.length);
+        boolean first = true;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            if (first && CSV_HEADER_NAMES.contains(fields.get(0).trim().toLowerCase())) {
+                first = false;
+                continue;
+            }
+            first = false;
+            rows.add(new Row(String.format("第%d行", i + 1), fields.get(0),
+                    fields.size() > 1 ? fields.get(1) : null,
+                    fields.size() > 2 ? fields.get(2) : null,
+                    fields.size() > 3 ? fields.get(3) : null,
+                    fields.size() > 4 ? fields.get(4) : null));
+        }
+        return rows;
+    }
+
+    // 支持用双引号包住含逗号的名称，引号内的""表示一个引号
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // 各行互不相关，并行校验；结果顺序与文件一致
+    private static List<Validated> validate(List<Row> rows) {
+        return rows.parallelStream().map(WatchListStore::validate).collect(Collectors.toList());
+    }
+
+    private static Validated validate(Row row) {
+        try {
+            double price;
+            try {
+                price = row.price == null || row.price.trim().isEmpty() ? 0 : Double.parseDouble(row.price.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("价格格式错误: " + row.price);
+            }
+            String mode = row.mode == null || row.mode.trim().isEmpty() ? WatchMode.MONITOR.name() : row.mode;
+            // 触发条件在导入时编译一次，语法错误与其他字段错误一样按行报告
+            if (row.trigger != null && !row.trigger.trim().isEmpty()) {
+                PriceTrigger.compile(row.trigger);
+            }
+            return new Validated(new WatchDefinition(row.name, price, parseMode(mode), row.account, row.trigger), null);
+        } catch (IllegalArgumentException e) {
+            return new Validated(null, row.label + "无效: " + e.getMessage());
+        }
+    }
+
+    private static WatchMode parseMode(String mode) {
+        try {
+            return WatchMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知的监控模式: " + mode);
+        }
+    }
+
+    // 解析后尚未校验的一项
+    private static final class Row {
+        final String label;
+        final String name;
+        final String price;
+        final String mode;
+        final String account;
+        final String trigger;
+
+        Row(String label, String name, String price, String mode, String account, String trigger) {
+            this.label = label;
+            this.name = name;
+            this.price = price;
+            this.mode = mode;
+            this.account = account;
+            this.trigger = trigger;
+        }
+    }
+
+    private static final class Parsed {
+        final List<Row> rows;
+        final long addressId;
+
+        Parsed(List<Row> rows, long addressId) {
+            this.rows = rows;
+            this.addressId = addressId;
+        }
+    }
+
+    private static final class Validated {
+        final WatchDefinition watch;
+        final String error;
+
+        Validated(WatchDefinition watch, String error) {
+            this.watch = watch;
+            this.error = error;
+        }
+    }
+
+    public static final class ImportResult {
+        private final List<WatchDefinition> watches;
+        private final List<String> errors;
+
+        ImportResult(List<WatchDefinition> watches, List<String> errors) {
+            this.watches = List.copyOf(watches);
+            this.errors = List.copyOf(errors);
+        }
+
+        public List<WatchDefinition> getWatches() { return watches; }
+        public List<String> getErrors() { return errors; }
+    }
+
+    public static final class WatchList {
+        private final List<WatchDefinition> watches;
+        private final long addressId;
+
+        public WatchList(List<WatchDefinition> watches, long addressId) {
+            this.watches = List.copyOf(watches);
+            this.addressId = addressId;
+        }
+
+        public List<WatchDefinition> getWatches() { return watches; }
+        // 0表示使用账号的第一个收货地址
+        public long getAddressId() { return addressId; }
+
+        // 需要收货地址的监控(购买模式)
+        public boolean needsAddress() {
+            return watches.stream().anyMatch(watch -> watch.getMode().isBuying());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.service.event;
+
+import org.example.config.Config;
+import org.example.util.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EventBus {
+    private static final Logger logger = Logger.getInstance();
+    private static volatile EventBus instance;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 4096;
+    private static final long DEFAULT_FRAME_MS = 50;
+    private static final String WILDCARD = "*";
+
+    private final Map<String, MonitorEvent> latestEvents = new ConcurrentHashMap<>();
+    private final BlockingQueue<MonitorEvent> eventQueue;
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong publishedEvents = new AtomicLong(0);
+    private final AtomicLong coalescedEvents = new AtomicLong(0);
+    private final AtomicLong droppedEvents = new AtomicLong(0);
+    private final long frameMillis;
+    private final Thread dispatchThread;
+
+    public static final class Subscription {
+        private final String ruleKey;
+        private final Executor executor;
+        private final EventSubscriber subscriber;
+
+        private Subscription(String ruleKey, Executor executor, EventSubscriber subscriber) {
+            this.ruleKey = ruleKey;
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+    }
+
+    private EventBus() {
+        Config config = Config.getInstance();
+        this.eventQueue = new ArrayBlockingQueue<>(
+                config.getInt("EVENT_QUEUE_CAPACITY", DEFAULT_QUEUE_CAPACITY));
+        this.frameMillis = config.getLong("EVENT_FRAME_MS", DEFAULT_FRAME_MS);
+        this.dispatchThread = new Thread(this::dispatchLoop, "EventBus");
+        this.dispatchThread.setDaemon(true);
+        this.dispatchThread.start();
+    }
+
+    public static EventBus getInstance() {
+        if (instance == null) {
+            synchronized (EventBus.class) {
+                if (instance == null) {
+                    instance = new EventBus();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // 发布方只做一次Map写入或一次入队，不会阻塞监控线程
+    public void publish(MonitorEvent event) {
+        publishedEvents.incrementAndGet();
+        if (event.getType().isCoalescable()) {
+            if (latestEvents.put(event.coalescingKey(), event) != null) {
+                coalescedEvents.incrementAndGet();
+            }
+        } else if (!eventQueue.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    // 按规则标识订阅，只收到该规则的事件
+    public Subscription subscribe(String ruleKey, Executor executor, EventSubscriber subscriber) {
+        Subscription subscription = new Subscription(ruleKey, executor, subscriber);
+        subscriptions.computeIfAbsent(ruleKey, k -> new CopyOnWriteArrayList<>()).add(subscription);
+        return subscription;
+    }
+
+    // 订阅所有规则的事件
+    public Subscription subscribeAll(Executor executor, EventSubscriber subscriber) {
+        return subscribe(WILDCARD, executor, subscriber);
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        if (subscription == null) {
+            return;
+        }
+        List<Subscription> list = subscriptions.get(subscription.ruleKey);
+        if (list != null) {
+            list.remove(subscription);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(frameMillis);
+                dispatchFrame();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.log("EventBus", "事件分发失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            }
+        }
+    }
+
+    private void dispatchFrame() {
+        List<MonitorEvent> frame = new ArrayList<>();
+        eventQueue.drainTo(frame);
+        for (String key : latestEvents.keySet()) {
+            MonitorEvent event = latestEvents.remove(key);
+            if (event != null) {
+                frame.add(event);
+            }
+        }
+        if (frame.isEmpty()) {
+            return;
+        }
+        frame.sort(Comparator.comparingLong(MonitorEvent::getSequence));
+
+        Map<String, List<MonitorEvent>> byRule = new HashMap<>();
+        for (MonitorEvent event : frame) {
+            byRule.computeIfAbsent(event.getRuleKey(), k -> new ArrayList<>()).add(event);
+        }
+
+        byRule.forEach((ruleKey, events) -> deliver(subscriptions.get(ruleKey), events));
+        deliver(subscriptions.get(WILDCARD), frame);
+    }
+
+    private void deliver(List<Subscription> targets, List<MonitorEvent> events) {
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        List<MonitorEvent> batch = List.copyOf(events);
+        for (Subscription subscription : targets) {
+            subscription.executor.execute(() -> {
+                try {
+                    subscription.subscriber.onEvents(batch);
+                } catch (Exception e) {
+                    logger.log("EventBus", "事件处理失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+                }
+            });
+        }
+    }
+
+    public String getStatistics() {
+        return String.format("事件统计: 发布%d, 合并%d, 丢弃%d",
+                publishedEvents.get(), coalescedEvents.get(), droppedEvents.get());
+    }
+
+    public void shutdown() {
+        dispatchThread.interrupt();
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.service.event;
+
+import java.util.List;
+
+public interface EventSubscriber {
+    void onEvents(List<MonitorEvent> events);
+}
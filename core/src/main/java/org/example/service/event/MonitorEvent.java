@@ -0,0 +1,111 @@
+package org.example.service.event;
+
+import org.example.model.Product;
+import org.example.model.ProductSnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class MonitorEvent {
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    public enum Type {
+        PRICE_CHANGED(true),
+        STATE_CHANGED(false),
+        MESSAGE(false),
+        NEW_LISTING(false),
+        ORDER_PLACED(false),
+        ERROR(false);
+
+        // 可合并的事件在同一帧内只保留每条规则的最新值
+        private final boolean coalescable;
+
+        Type(boolean coalescable) {
+            this.coalescable = coalescable;
+        }
+
+        public boolean isCoalescable() { return coalescable; }
+    }
+
+    private final long sequence;
+    private final Type type;
+    // 规则标识，同名商品的多条规则各自合并和分发
+    private final String ruleKey;
+    private final String productName;
+    private final ProductSnapshot snapshot;
+    private final String message;
+    private final long goodsId;
+    private final double price;
+    private final long timestamp;
+
+    private MonitorEvent(Type type, Product product, ProductSnapshot snapshot, String message) {
+        this(type, product, snapshot, message, 0, 0);
+    }
+
+    private MonitorEvent(Type type, Product product, ProductSnapshot snapshot, String message,
+                         long goodsId, double price) {
+        this.sequence = SEQUENCE.incrementAndGet();
+        this.type = type;
+        this.ruleKey = product.getRuleKey();
+        this.productName = product.getName();
+        this.snapshot = snapshot;
+        this.message = message;
+        this.goodsId = goodsId;
+        this.price = price;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public static MonitorEvent priceChanged(Product product, ProductSnapshot snapshot) {
+        return new MonitorEvent(Type.PRICE_CHANGED, product, snapshot, null);
+    }
+
+    public static MonitorEvent stateChanged(Product product, ProductSnapshot snapshot, String message) {
+        return new MonitorEvent(Type.STATE_CHANGED, product, snapshot, message);
+    }
+
+    public static MonitorEvent message(Product product, ProductSnapshot snapshot, String message) {
+        return new MonitorEvent(Type.MESSAGE, product, snapshot, message);
+    }
+
+    public static MonitorEvent newListing(Product product, ProductSnapshot snapshot,
+                                          long goodsId, double price) {
+        return new MonitorEvent(Type.NEW_LISTING, product, snapshot, null, goodsId, price);
+    }
+
+    // 下单请求已返回，界面据此提示用户
+    public static MonitorEvent orderPlaced(Product product, ProductSnapshot snapshot, String message) {
+        return new MonitorEvent(Type.ORDER_PLACED, product, snapshot, message);
+    }
+
+    public static MonitorEvent error(Product product, ProductSnapshot snapshot, String message) {
+        return new MonitorEvent(Type.ERROR, product, snapshot, message);
+    }
+
+    // 文本在订阅方线程上生成，监控线程只负责发布事件
+    public String describe() {
+        switch (type) {
+            case PRICE_CHANGED:
+                return String.format("当前价格: %.2f", snapshot.getCurrentPrice());
+            case NEW_LISTING:
+                return String.format("新上架: 商品ID %d, 价格 %.2f", goodsId, price);
+            case ERROR:
+                return "监控错误: " + message;
+            default:
+                return message;
+        }
+    }
+
+    String coalescingKey() {
+        return ruleKey + '#' + type.name();
+    }
+
+    // Getters
+    public long getSequence() { return sequence; }
+    public Type getType() { return type; }
+    public String getRuleKey() { return ruleKey; }
+    public String getProductName() { return productName; }
+    public ProductSnapshot getSnapshot() { return snapshot; }
+    public String getMessage() { return message; }
+    public long getGoodsId() { return goodsId; }
+    public double getPrice() { return price; }
+    public long getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,201 @@
+package org.example.service.session;
+
+import org.example.config.Config;
+import org.example.service.UserLogin;
+import org.example.util.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccountPool implements SessionManager.SessionListener {
+    private static final Logger logger = Logger.getInstance();
+    private static volatile AccountPool instance;
+
+    private static final String ACCOUNT_POOL_KEY = "ACCOUNT_POOL";
+    private static final String PURCHASE_ACCOUNT_KEY = "PURCHASE_ACCOUNT";
+
+    private final Config config = Config.getInstance();
+    private final SessionManager sessionManager = SessionManager.getInstance();
+    private final AtomicInteger cursor = new AtomicInteger(0);
+    private volatile String purchaseAccount;
+
+    private AccountPool() {
+        this.purchaseAccount = config.get(PURCHASE_ACCOUNT_KEY);
+        loadAccounts();
+        sessionManager.addListener(this);
+    }
+
+    public static AccountPool getInstance() {
+        if (instance == null) {
+            synchronized (AccountPool.class) {
+                if (instance == null) {
+                    instance = new AccountPool();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void loadAccounts() {
+        String stored = config.get(ACCOUNT_POOL_KEY);
+        if (stored == null || stored.isEmpty()) {
+            return;
+        }
+        try {
+            JSONArray accounts = new JSONArray(stored);
+            for (int i = 0; i < accounts.length(); i++) {
+                JSONObject data = accounts.getJSONObject(i);
+                sessionManager.register(data.getString("token"), data.optString("nickName"),
+                        data.getString("phone"), String.valueOf(data));
+            }
+            logger.log("AccountPool", String.format("已加载%d个附加账号", accounts.length()),
+                    Logger.LogLevel.INFO);
+        } catch (JSONException e) {
+            logger.log("AccountPool", "解析账号池配置失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+        }
+    }
+
+    // 以登录接口返回的data注册附加账号
+    public Session addAccount(JSONObject loginData) {
+        Session session = sessionManager.register(loginData.getString("token"),
+                loginData.optString("nickName"), loginData.getString("phone"), String.valueOf(loginData));
+        saveAccounts();
+        refreshAddresses(session);
+        logger.log("AccountPool", "添加账号: " + session.getNickName(), Logger.LogLevel.INFO);
+        return session;
+    }
+
+    public void removeAccount(String phone) {
+        Session primary = sessionManager.getPrimary();
+        if (primary != null && phone.equals(primary.getPhone())) {
+            throw new IllegalArgumentException("不能移除当前登录账号");
+        }
+        sessionManager.unregister(phone);
+        saveAccounts();
+        logger.log("AccountPool", "移除账号: " + phone, Logger.LogLevel.INFO);
+    }
+
+    public void refreshAddresses(Session session) {
+        try {
+            session.setAddresses(UserLogin.getInstance().getAddresses(session));
+        } catch (Exception e) {
+            logger.log("AccountPool", String.format("获取账号地址失败(%s): %s",
+                    session.getNickName(), e.getMessage()), Logger.LogLevel.WARN);
+        }
+    }
+
+    // 轮询选出仍有请求额度的账号，所有账号都达到上限时退回到当前请求最少的账号
+    public Session nextSearchSession() {
+        List<Session> sessions = getActiveSessions();
+        if (sessions.isEmpty()) {
+            return null;
+        }
+
+        int maxQps = config.getSnapshot().getAccountMaxQps();
+        int start = Math.floorMod(cursor.getAndIncrement(), sessions.size());
+        for (int i = 0; i < sessions.size(); i++) {
+            Session session = sessions.get((start + i) % sessions.size());
+            if (session.getRateTracker().tryAcquire(maxQps)) {
+                return session;
+            }
+        }
+
+        Session leastLoaded = sessions.get(start);
+        for (Session session : sessions) {
+            if (session.getRateTracker().getCurrentRate() < leastLoaded.getRateTracker().getCurrentRate()) {
+                leastLoaded = session;
+            }
+        }
+        leastLoaded.getRateTracker().record();
+        return leastLoaded;
+    }
+
+    // 下单统一走指定账号，未指定时使用当前登录账号
+    public Session getPurchaseSession() {
+        Session designated = sessionManager.getSession(purchaseAccount);
+        if (designated != null && !designated.isExpired()) {
+            return designated;
+        }
+        return sessionManager.getPrimary();
+    }
+
+    // 规则指定了下单账号时优先使用该账号，账号不可用时退回默认下单账号
+    public Session getPurchaseSession(String phone) {
+        if (phone != null) {
+            Session session = sessionManager.getSession(phone);
+            if (session != null && !session.isExpired()) {
+                return session;
+            }
+            logger.log("AccountPool", "指定的下单账号不可用，使用默认账号: " + phone, Logger.LogLevel.WARN);
+        }
+        return getPurchaseSession();
+    }
+
+    public void setPurchaseAccount(String phone) {
+        this.purchaseAccount = phone;
+        config.set(PURCHASE_ACCOUNT_KEY, phone);
+        config.saveConfig();
+        logger.log("AccountPool", "设置下单账号: " + phone, Logger.LogLevel.INFO);
+    }
+
+    public List<Session> getActiveSessions() {
+        List<Session> active = new ArrayList<>();
+        for (Session session : sessionManager.getSessions()) {
+            if (!session.isExpired() && session.getAuthorization() != null) {
+                active.add(session);
+            }
+        }
+        return active;
+    }
+
+    private synchronized void saveAccounts() {
+        Session primary = sessionManager.getPrimary();
+        JSONArray accounts = new JSONArray();
+        for (Session session : sessionManager.getSessions()) {
+            if (session == primary || session.getLoginInfo() == null) {
+                continue;
+            }
+            try {
+                accounts.put(new JSONObject(session.getLoginInfo()));
+            } catch (JSONException e) {
+                logger.log("AccountPool", "账号信息格式错误: " + session.getPhone(), Logger.LogLevel.WARN);
+            }
+        }
+        config.set(ACCOUNT_POOL_KEY, accounts.toString());
+        config.saveConfig();
+    }
+
+    @Override
+    public void onSessionRefreshed(Session session) {
+        if (session != sessionManager.getPrimary()) {
+            saveAccounts();
+        }
+    }
+
+    @Override
+    public void onSessionExpired(Session session) {
+        logger.log("AccountPool", String.format("账号%s已失效，暂停分配请求", session.getNickName()),
+                Logger.LogLevel.WARN);
+    }
+
+    public String getStatistics() {
+        StringBuilder stats = new StringBuilder();
+        stats.append("账号池统计:\n");
+        Session purchase = getPurchaseSession();
+        for (Session session : sessionManager.getSessions()) {
+            RateTracker tracker = session.getRateTracker();
+            stats.append(String.format("%s%s: 当前%d次/秒, 累计%d次, 限流%d次%s\n",
+                    session.getNickName(),
+                    session == purchase ? "(下单)" : "",
+                    tracker.getCurrentRate(),
+                    tracker.getTotalRequests(),
+                    tracker.getRejectedRequests(),
+                    session.isExpired() ? ", 已失效" : ""));
+        }
+        return stats.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.service.session;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateTracker {
+    private static final long WINDOW_MS = 1000;
+
+    // 高32位为窗口序号，低32位为窗口内请求数，一次CAS同时更新两者
+    private final AtomicLong window = new AtomicLong(0);
+    private final AtomicLong totalRequests = new AtomicLong(0);
+    private final AtomicLong rejectedRequests = new AtomicLong(0);
+
+    public boolean tryAcquire(int maxPerSecond) {
+        long currentWindow = System.currentTimeMillis() / WINDOW_MS;
+        while (true) {
+            long state = window.get();
+            long stateWindow = state >>> 32;
+            int count = stateWindow == currentWindow ? (int) state : 0;
+            if (maxPerSecond > 0 && count >= maxPerSecond) {
+                rejectedRequests.incrementAndGet();
+                return false;
+            }
+            long next = (currentWindow << 32) | (count + 1);
+            if (window.compareAndSet(state, next)) {
+                totalRequests.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    // 不受限制地记录一次请求，用于所有账号均已达到上限时的兜底
+    public void record() {
+        long currentWindow = System.currentTimeMillis() / WINDOW_MS;
+        while (true) {
+            long state = window.get();
+            int count = (state >>> 32) == currentWindow ? (int) state : 0;
+            if (window.compareAndSet(state, (currentWindow << 32) | (count + 1))) {
+                totalRequests.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    public int getCurrentRate() {
+        long state = window.get();
+        return (state >>> 32) == System.currentTimeMillis() / WINDOW_MS ? (int) state : 0;
+    }
+
+    public long getTotalRequests() { return totalRequests.get(); }
+    public long getRejectedRequests() { return rejectedRequests.get(); }
+}
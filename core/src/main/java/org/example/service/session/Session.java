@@ -0,0 +1,159 @@
+package org.example.service.session;
+
+import org.example.model.AddressItem;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Session {
+    private final String phone;
+    private volatile String nickName;
+    private volatile String loginInfo;
+    private final AtomicReference<Credential> credential;
+    private final AtomicBoolean refreshing;
+    private final AtomicInteger probeFailures;
+    private final RateTracker rateTracker;
+    private volatile List<AddressItem> addresses;
+    private volatile long selectedAddressId;
+    private volatile boolean expired;
+    private volatile long lastProbeTime;
+
+    public Session(String phone, String nickName, String token, String loginInfo) {
+        this.phone = phone;
+        this.nickName = nickName;
+        this.loginInfo = loginInfo;
+        this.credential = new AtomicReference<>(token == null || token.isEmpty() ? null : Credential.of(token));
+        this.refreshing = new AtomicBoolean(false);
+        this.probeFailures = new AtomicInteger(0);
+        this.rateTracker = new RateTracker();
+        this.addresses = new ArrayList<>();
+    }
+
+    // 热路径只读取一次引用，保证拿到的是完整的令牌
+    public String getAuthorization() {
+        Credential current = credential.get();
+        return current != null ? current.getAuthorization() : null;
+    }
+
+    public String getToken() {
+        Credential current = credential.get();
+        return current != null ? current.getToken() : null;
+    }
+
+    public long getExpiresAt() {
+        Credential current = credential.get();
+        return current != null ? current.getExpiresAt() : 0;
+    }
+
+    Credential getCredential() {
+        return credential.get();
+    }
+
+    boolean swapCredential(Credential expected, Credential update) {
+        if (credential.compareAndSet(expected, update)) {
+            expired = false;
+            probeFailures.set(0);
+            return true;
+        }
+        return false;
+    }
+
+    void update(String token, String nickName, String loginInfo) {
+        this.nickName = nickName;
+        this.loginInfo = loginInfo;
+        this.credential.set(Credential.of(token));
+        this.expired = false;
+        this.probeFailures.set(0);
+    }
+
+    boolean beginRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    void endRefresh() {
+        refreshing.set(false);
+    }
+
+    void markExpired() {
+        this.expired = true;
+    }
+
+    void recordProbe(boolean healthy) {
+        this.lastProbeTime = System.currentTimeMillis();
+        if (healthy) {
+            probeFailures.set(0);
+        } else {
+            probeFailures.incrementAndGet();
+        }
+    }
+
+    void setLoginInfo(String loginInfo) {
+        this.loginInfo = loginInfo;
+    }
+
+    public void setAddresses(List<AddressItem> addresses) {
+        this.addresses = new ArrayList<>(addresses);
+        if (selectedAddressId == 0 && !addresses.isEmpty()) {
+            selectedAddressId = addresses.get(0).getId();
+        }
+    }
+
+    public void setSelectedAddressId(long selectedAddressId) {
+        this.selectedAddressId = selectedAddressId;
+    }
+
+    // Getters
+    public String getPhone() { return phone; }
+    public String getNickName() { return nickName; }
+    public String getLoginInfo() { return loginInfo; }
+    public boolean isExpired() { return expired; }
+    public long getLastProbeTime() { return lastProbeTime; }
+    public int getProbeFailures() { return probeFailures.get(); }
+    public RateTracker getRateTracker() { return rateTracker; }
+    public List<AddressItem> getAddresses() { return new ArrayList<>(addresses); }
+    public long getSelectedAddressId() { return selectedAddressId; }
+
+    static final class Credential {
+        private static final String BEARER_PREFIX = "Bearer ";
+
+        private final String token;
+        private final String authorization;
+        private final long expiresAt;
+
+        private Credential(String token) {
+            this.token = token;
+            this.authorization = BEARER_PREFIX + token;
+            this.expiresAt = parseExpiry(token);
+        }
+
+        static Credential of(String token) {
+            String raw = token.startsWith(BEARER_PREFIX) ? token.substring(BEARER_PREFIX.length()) : token;
+            return new Credential(raw);
+        }
+
+        // 令牌为JWT时读取exp声明，否则返回0表示过期时间未知
+        private static long parseExpiry(String token) {
+            String[] parts = token.split("\\.");
+            if (parts.length != 3) {
+                return 0;
+            }
+            try {
+                String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+                return new JSONObject(payload).optLong("exp", 0) * 1000;
+            } catch (IllegalArgumentException | JSONException e) {
+                return 0;
+            }
+        }
+
+        String getToken() { return token; }
+        String getAuthorization() { return authorization; }
+        long getExpiresAt() { return expiresAt; }
+    }
+}
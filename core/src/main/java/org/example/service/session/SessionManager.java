@@ -0,0 +1,338 @@
+package org.example.service.session;
+
+import org.example.config.Config;
+import org.example.util.HttpUtil;
+import org.example.util.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class SessionManager {
+    private static final Logger logger = Logger.getInstance();
+    private static volatile SessionManager instance;
+
+    private static final int SUCCESS_CODE = 200;
+    private static final int AUTH_FAILURE_CODE = 401;
+    private static final long DEFAULT_PROBE_INTERVAL_MS = 60_000;
+    private static final long DEFAULT_REFRESH_AHEAD_MS = 300_000;
+
+    private final Config config = Config.getInstance();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final List<SessionListener> listeners = new CopyOnWriteArrayList<>();
+    // 已提示过"没有可用的新令牌"的会话，刷新成功或失效后移除
+    private final Set<Session> refreshUnavailable = ConcurrentHashMap.newKeySet();
+    private volatile Session primary;
+    private ScheduledExecutorService scheduler;
+
+    public interface SessionListener {
+        void onSessionRefreshed(Session session);
+        void onSessionExpired(Session session);
+    }
+
+    private SessionManager() {
+        restorePrimary();
+    }
+
+    public static SessionManager getInstance() {
+        if (instance == null) {
+            synchronized (SessionManager.class) {
+                if (instance == null) {
+                    instance = new SessionManager();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void restorePrimary() {
+        String token = config.get(Config.USER_TOKEN);
+        if (token == null || token.isEmpty()) {
+            token = config.get("TOKEN");
+        }
+        if (token != null && !token.isEmpty()) {
+            activate(token, config.get(Config.USER_NICKNAME), config.get(Config.USER_PHONE),
+                    config.get("LOGIN_INFO"));
+        }
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SessionManager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getLong("SESSION_PROBE_INTERVAL_MS", DEFAULT_PROBE_INTERVAL_MS);
+        // 启动时由StartupOrchestrator同步校验主账号，定时探测从一个间隔之后开始
+        scheduler.scheduleWithFixedDelay(this::checkSessions, interval, interval, TimeUnit.MILLISECONDS);
+        logger.log("Session", String.format("会话探测已启动，间隔: %d毫秒", interval), Logger.LogLevel.INFO);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logger.log("Session", "会话探测已停止", Logger.LogLevel.INFO);
+        }
+    }
+
+    public Session activate(String token, String nickName, String phone, String loginInfo) {
+        Session session = register(token, nickName, phone, loginInfo);
+        primary = session;
+        return session;
+    }
+
+    // 注册会话但不改变主账号，用于账号池中的附加账号
+    public Session register(String token, String nickName, String phone, String loginInfo) {
+        String key = phone != null ? phone : "";
+        return sessions.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return new Session(phone, nickName, token, loginInfo);
+            }
+            existing.update(token, nickName, loginInfo);
+            return existing;
+        });
+    }
+
+    public void unregister(String phone) {
+        Session removed = sessions.remove(phone != null ? phone : "");
+        if (removed != null && removed == primary) {
+            primary = null;
+        }
+    }
+
+    public Session getSession(String phone) {
+        return phone != null ? sessions.get(phone) : null;
+    }
+
+    public void deactivate() {
+        Session current = primary;
+        if (current != null) {
+            sessions.remove(current.getPhone() != null ? current.getPhone() : "");
+            primary = null;
+        }
+    }
+
+    public void addListener(SessionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SessionListener listener) {
+        listeners.remove(listener);
+    }
+
+    // 热路径读取的请求头，优先使用会话中最新的令牌
+    public String getAuthorization() {
+        Session current = primary;
+        if (current != null) {
+            String authorization = current.getAuthorization();
+            if (authorization != null) {
+                return authorization;
+            }
+        }
+        return config.get("TOKEN");
+    }
+
+    public Session getPrimary() {
+        return primary;
+    }
+
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    public static boolean isAuthFailure(JSONObject response) {
+        return response.optInt("code") == AUTH_FAILURE_CODE;
+    }
+
+    // 请求方遇到鉴权失败时调用，刷新在后台执行
+    public void reportAuthFailure() {
+        reportAuthFailure(primary);
+    }
+
+    public void reportAuthFailure(Session session) {
+        ScheduledExecutorService executor = scheduler;
+        if (session != null && executor != null) {
+            executor.execute(() -> refresh(session, "请求鉴权失败", true));
+        }
+    }
+
+    // 同步检查主账号会话，令牌失效时尝试刷新；返回会话是否可用
+    public boolean validatePrimary() {
+        Session session = primary;
+        if (session == null) {
+            return false;
+        }
+        try {
+            checkSession(session);
+        } catch (Exception e) {
+            logger.log("Session", "校验会话失败: " + e.getMessage(), Logger.LogLevel.WARN);
+            return false;
+        }
+        return !session.isExpired();
+    }
+
+    private void checkSessions() {
+        for (Session session : sessions.values()) {
+            try {
+                checkSession(session);
+            } catch (Exception e) {
+                logger.log("Session", String.format("会话检查失败(%s): %s",
+                        session.getNickName(), e.getMessage()), Logger.LogLevel.WARN);
+            }
+        }
+    }
+
+    private void checkSession(Session session) throws Exception {
+        Session.Credential credential = session.getCredential();
+        if (credential == null) {
+            return;
+        }
+
+        long refreshAhead = config.getLong("SESSION_REFRESH_AHEAD_MS", DEFAULT_REFRESH_AHEAD_MS);
+        long expiresAt = credential.getExpiresAt();
+        long now = System.currentTimeMillis();
+        if (expiresAt > 0 && now >= expiresAt - refreshAhead) {
+            boolean expired = now >= expiresAt;
+            if (refresh(session, expired ? "令牌已过期" : "令牌即将过期", expired)) {
+                return;
+            }
+            // 没有可用的新令牌，过期前继续使用当前令牌并照常探测
+        }
+
+        boolean healthy = probe(credential);
+        session.recordProbe(healthy);
+        if (!healthy) {
+            refresh(session, "令牌探测失败", true);
+        }
+    }
+
+    private boolean probe(Session.Credential credential) throws Exception {
+        String probeUrl = config.get("SESSION_PROBE_URL");
+        if (probeUrl == null || probeUrl.isEmpty()) {
+            probeUrl = config.get("ADDRESS_URL");
+        }
+
+        JSONObject probeBody = new JSONObject()
+                .put("platformId", config.get("PLATFORM_ID"));
+        JSONObject response = HttpUtil.post(probeUrl, probeBody, credential.getAuthorization());
+        return !isAuthFailure(response);
+    }
+
+    // currentFailed表示当前令牌已过期或探测失败；否则取不到新令牌时只记录一次日志，不标记失效。
+    // 返回true表示已刷新、已标记失效或另一线程正在刷新
+    private boolean refresh(Session session, String reason, boolean currentFailed) {
+        if (!session.beginRefresh()) {
+            return true;
+        }
+        try {
+            Session.Credential current = session.getCredential();
+            logger.log("Session", String.format("刷新会话(%s): %s", session.getNickName(), reason),
+                    Logger.LogLevel.INFO);
+
+            Session.Credential fresh = requestRefresh(session, current);
+            if (fresh == null) {
+                fresh = reloadPersisted(session, current);
+            }
+
+            if (fresh != null && probe(fresh) && session.swapCredential(current, fresh)) {
+                if (session == primary) {
+                    persistPrimary(session);
+                }
+                refreshUnavailable.remove(session);
+                logger.log("Session", String.format("会话已刷新(%s)", session.getNickName()),
+                        Logger.LogLevel.INFO);
+                listeners.forEach(listener -> listener.onSessionRefreshed(session));
+                return true;
+            }
+            if (!currentFailed) {
+                if (refreshUnavailable.add(session)) {
+                    logger.log("Session", String.format("会话即将过期(%s)，没有可用的新令牌，过期前继续使用当前令牌",
+                            session.getNickName()), Logger.LogLevel.WARN);
+                }
+                return false;
+            }
+            // 只在转为失效时通知一次，之后的检查不再重复提示
+            boolean wasExpired = session.isExpired();
+            session.markExpired();
+            refreshUnavailable.remove(session);
+            if (!wasExpired) {
+                logger.log("Session", String.format("会话已失效(%s)，需要重新登录", session.getNickName()),
+                        Logger.LogLevel.WARN);
+                listeners.forEach(listener -> listener.onSessionExpired(session));
+            }
+            return true;
+        } catch (Exception e) {
+            logger.log("Session", String.format("刷新会话失败(%s): %s",
+                    session.getNickName(), e.getMessage()), Logger.LogLevel.ERROR);
+            return false;
+        } finally {
+            session.endRefresh();
+        }
+    }
+
+    // 配置了REFRESH_URL时用当前令牌换取新令牌
+    private Session.Credential requestRefresh(Session session, Session.Credential current) throws Exception {
+        String refreshUrl = config.get("REFRESH_URL");
+        if (refreshUrl == null || refreshUrl.isEmpty() || current == null) {
+            return null;
+        }
+
+        JSONObject requestBody = new JSONObject()
+                .put("token", current.getToken())
+                .put("client", config.get("CLIENT_TYPE"));
+        JSONObject response = HttpUtil.post(refreshUrl, requestBody, current.getAuthorization());
+        if (response.optInt("code") != SUCCESS_CODE) {
+            return null;
+        }
+
+        JSONObject data = response.optJSONObject("data");
+        if (data == null || data.optString("token").isEmpty()) {
+            return null;
+        }
+        session.setLoginInfo(String.valueOf(data));
+        return Session.Credential.of(data.getString("token"));
+    }
+
+    // 从持久化的LOGIN_INFO中恢复令牌（例如其他进程重新登录后写入的令牌）
+    private Session.Credential reloadPersisted(Session session, Session.Credential current) {
+        String loginInfo = session == primary ? config.get("LOGIN_INFO") : session.getLoginInfo();
+        if (loginInfo == null || loginInfo.isEmpty()) {
+            return null;
+        }
+        try {
+            String token = new JSONObject(loginInfo).optString("token");
+            if (token.isEmpty() || (current != null && token.equals(current.getToken()))) {
+                return null;
+            }
+            session.setLoginInfo(loginInfo);
+            return Session.Credential.of(token);
+        } catch (JSONException e) {
+            logger.log("Session", "解析LOGIN_INFO失败: " + e.getMessage(), Logger.LogLevel.WARN);
+            return null;
+        }
+    }
+
+    private void persistPrimary(Session session) {
+        Map<String, String> values = new HashMap<>();
+        values.put("TOKEN", session.getAuthorization());
+        values.put(Config.USER_TOKEN, session.getToken());
+        if (session.getLoginInfo() != null) {
+            values.put("LOGIN_INFO", session.getLoginInfo());
+        }
+        config.update(values);
+        config.saveConfig();
+    }
+}
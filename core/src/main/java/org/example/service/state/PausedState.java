@@ -6,6 +6,6 @@ public class PausedState implements TaskState {
     @Override
     public void handle(ProductMonitor monitor) {
         monitor.getProduct().setStatus("已暂停");
-        monitor.notifyObservers("监控已暂停");
+        monitor.notifyStateChanged("监控已暂停");
     }
 }
\ No newline at end of file
@@ -6,6 +6,6 @@ public class RunningState implements TaskState {
     @Override
     public void handle(ProductMonitor monitor) {
         monitor.getProduct().setStatus("监控中");
-        monitor.notifyObservers("开始监控商品");
+        monitor.notifyStateChanged("开始监控商品");
     }
 }
\ No newline at end of file
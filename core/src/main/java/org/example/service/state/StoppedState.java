@@ -6,6 +6,6 @@ public class StoppedState implements TaskState {
     @Override
     public void handle(ProductMonitor monitor) {
         monitor.getProduct().setStatus("已停止");
-        monitor.notifyObservers("监控已停止");
+        monitor.notifyStateChanged("监控已停止");
     }
 }
\ No newline at end of file
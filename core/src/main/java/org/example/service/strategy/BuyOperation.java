@@ -2,25 +2,35 @@ package org.example.service.strategy;
 
 import org.example.config.Config;
 import org.example.model.Product;
-import org.example.ui.MainWindow;
+import org.example.model.ProductSnapshot;
+import org.example.service.event.EventBus;
+import org.example.service.event.MonitorEvent;
+import org.example.service.session.AccountPool;
+import org.example.service.session.Session;
+import org.example.service.session.SessionManager;
 import org.example.util.HttpUtil;
 import org.example.util.Logger;
 import org.json.JSONObject;
 
-import java.awt.*;
-
 public class BuyOperation implements ProductOperation {
     private static final Logger logger = Logger.getInstance();
     private final Config config = Config.getInstance();
 
     private final boolean continuousBuying;
+    // 下单账号手机号，null时使用账号池的默认下单账号
+    private final String account;
     private boolean hasBought = false;
     private int successCount = 0;
     private int failureCount = 0;
     private double totalSpent = 0.0;
 
     public BuyOperation(boolean continuousBuying) {
+        this(continuousBuying, null);
+    }
+
+    public BuyOperation(boolean continuousBuying, String account) {
         this.continuousBuying = continuousBuying;
+        this.account = account;
     }
     private String getBuyingModeDescription() {
         return continuousBuying ? "持续购买" : "单次购买";
@@ -29,52 +39,47 @@ public class BuyOperation implements ProductOperation {
     @Override
     public void execute(Product product) throws Exception {
         if (!continuousBuying && hasBought) {
-            logger.log(product.getName(),
+            logger.log(product.getRuleKey(),
                     "单次购买已完成，不再继续购买",
                     Logger.LogLevel.INFO);
             return;
         }
 
         try {
-            logger.log(product.getName(),
-                    String.format("执行%s操作", getBuyingModeDescription()),
-                    Logger.LogLevel.INFO);
+            logger.log(product.getRuleKey(), Logger.LogLevel.INFO, "执行{}操作", getBuyingModeDescription());
             executePurchase(product);
         } catch (Exception e) {
             failureCount++;
-            String errorMsg = String.format("%s失败 (第%d次失败): %s",
+            logger.log(product.getRuleKey(), Logger.LogLevel.ERROR, "{}失败 (第{}次失败): {}",
                     getBuyingModeDescription(), failureCount, e.getMessage());
-            logger.log(product.getName(), errorMsg, Logger.LogLevel.ERROR);
             throw e;
         }
     }
 
-    private void handleSuccessfulPurchase(JSONObject response, Product product) {
+    private void handleSuccessfulPurchase(JSONObject response, Product product, ProductSnapshot snapshot) {
         successCount++;
         hasBought = true;
-        totalSpent += product.getCurrentPrice();
+        totalSpent += snapshot.getCurrentPrice();
 
         String orderNo = response.getJSONObject("data")
                 .optString("orderNo", "未知订单号");
 
-        String successMsg = String.format(
-                "%s成功！\n" +
-                        "订单号: %s\n" +
-                        "购买价格: %.2f\n" +
-                        "累计购买: %d次\n" +
-                        "总花费: %.2f",
+        logger.log(product.getRuleKey(), Logger.LogLevel.INFO,
+                "{}成功！\n" +
+                        "订单号: {}\n" +
+                        "购买价格: {}\n" +
+                        "累计购买: {}次\n" +
+                        "总花费: {}",
                 getBuyingModeDescription(),
                 orderNo,
-                product.getCurrentPrice(),
+                snapshot.getCurrentPrice(),
                 successCount,
                 totalSpent
         );
-
-        logger.log(product.getName(), successMsg, Logger.LogLevel.INFO);
         product.setStatus(getBuyingModeDescription() + "成功");
 
         if (!continuousBuying) {
-            logger.log(product.getName(), "单次购买完成，停止监控", Logger.LogLevel.INFO);
+            logger.log(product.getRuleKey(), "单次购买完成，停止监控", Logger.LogLevel.INFO);
         }
     }
 
@@ -98,54 +103,57 @@ public class BuyOperation implements ProductOperation {
 
 
     private void executePurchase(Product product) throws Exception {
-        logPurchaseAttempt(product);
+        // 整个下单过程使用同一份快照，避免监控线程更新导致价格与商品ID不一致
+        ProductSnapshot snapshot = product.getSnapshot();
+        logPurchaseAttempt(product, snapshot);
 
+        Session session = AccountPool.getInstance().getPurchaseSession(account);
         JSONObject orderBody = new JSONObject()
-                .put("addressId", getSelectedAddressId())
-                .put("goodsId", product.getMinPriceGoodsId())
+                .put("addressId", getSelectedAddressId(session))
+                .put("goodsId", snapshot.getMinPriceGoodsId())
                 .put("shortName", config.get("SHORT_NAME"))
-                .put("devType", config.getInt("DEV_TYPE"));
+                .put("devType", config.getSnapshot().getDevType());
 
         JSONObject response = HttpUtil.post(
                 config.get("ORDER_URL"),
                 orderBody,
-                config.get("TOKEN")
+                session != null ? session.getAuthorization() : SessionManager.getInstance().getAuthorization()
         );
-        Toolkit.getDefaultToolkit().beep();
+        // 只发布事件，提示音由界面订阅后播放，无界面运行时不会加载AWT
+        EventBus.getInstance().publish(MonitorEvent.orderPlaced(product, snapshot,
+                "下单请求已返回: " + response.optInt("code")));
 
-        handlePurchaseResponse(response, product);
+        handlePurchaseResponse(response, product, snapshot);
     }
 
-    private long getSelectedAddressId() {
-        if (MainWindow.addressComboBox == null ||
-                MainWindow.addressComboBox.getSelectedItem() == null) {
+    private long getSelectedAddressId(Session session) {
+        if (session == null || session.getSelectedAddressId() == 0) {
             throw new IllegalStateException("未选择收货地址");
         }
-        return MainWindow.addressComboBox.getItemAt(
-                MainWindow.addressComboBox.getSelectedIndex()).getId();
+        return session.getSelectedAddressId();
     }
 
-    private void logPurchaseAttempt(Product product) {
-        String attemptMsg = String.format(
-                "尝试购买商品: %s\n" +
-                        "当前价格: %.2f\n" +
-                        "目标价格: %.2f\n" +
-                        "商品ID: %d\n" +
-                        "已成功次数: %d\n" +
-                        "总花费: %.2f",
+    private void logPurchaseAttempt(Product product, ProductSnapshot snapshot) {
+        logger.log(product.getRuleKey(), Logger.LogLevel.INFO,
+                "尝试购买商品: {}\n" +
+                        "当前价格: {}\n" +
+                        "目标价格: {}\n" +
+                        "商品ID: {}\n" +
+                        "已成功次数: {}\n" +
+                        "总花费: {}",
                 product.getName(),
-                product.getCurrentPrice(),
+                snapshot.getCurrentPrice(),
                 product.getTargetPrice(),
-                product.getMinPriceGoodsId(),
+                snapshot.getMinPriceGoodsId(),
                 successCount,
                 totalSpent
         );
-        logger.log(product.getName(), attemptMsg, Logger.LogLevel.INFO);
     }
 
-    private void handlePurchaseResponse(JSONObject response, Product product) throws Exception {
+    private void handlePurchaseResponse(JSONObject response, Product product,
+                                        ProductSnapshot snapshot) throws Exception {
         if (response.getInt("code") == 200) {
-            handleSuccessfulPurchase(response, product);
+            handleSuccessfulPurchase(response, product, snapshot);
         } else {
             handleFailedPurchase(response, product);
         }
@@ -153,16 +161,14 @@ public class BuyOperation implements ProductOperation {
 
     private void handleFailedPurchase(JSONObject response, Product product) throws Exception {
         failureCount++;
-        String errorMsg = String.format(
-                "购买失败 (第%d次)\n" +
-                        "错误代码: %d\n" +
-                        "错误信息: %s",
+        logger.log(product.getRuleKey(), Logger.LogLevel.ERROR,
+                "购买失败 (第{}次)\n" +
+                        "错误代码: {}\n" +
+                        "错误信息: {}",
                 failureCount,
                 response.getInt("code"),
                 response.getString("msg")
         );
-
-        logger.log(product.getName(), errorMsg, Logger.LogLevel.ERROR);
         product.setStatus("购买失败");
         throw new Exception(response.getString("msg"));
     }
@@ -180,4 +186,8 @@ public class BuyOperation implements ProductOperation {
     public int getFailureCount() { return failureCount; }
     public double getTotalSpent() { return totalSpent; }
     public boolean isContinuousBuying() { return continuousBuying; }
+    public String getAccount() { return account; }
+
+    @Override
+    public boolean isCompleted() { return !continuousBuying && hasBought; }
 }
\ No newline at end of file
@@ -80,14 +80,14 @@ public class PreOrderOperation implements ProductOperation {
         }
 
         product.setStatus(status.toString());
-        logger.log(product.getName(), status.toString());
+        logger.log(product.getRuleKey(), status.toString());
     }
 
     private void handleError(Product product, Exception e) {
         String errorMsg = String.format("发布失败 (尝试 %d/%d): %s",
                 attemptCount, publishMode.getCount(), e.getMessage());
         product.setStatus(errorMsg);
-        logger.log(product.getName(), errorMsg, Logger.LogLevel.ERROR);
+        logger.log(product.getRuleKey(), errorMsg, Logger.LogLevel.ERROR);
     }
 
     private void completeOperation(Product product) {
@@ -98,7 +98,7 @@ public class PreOrderOperation implements ProductOperation {
                 successCount
         );
         product.setStatus(finalStatus);
-        logger.log(product.getName(), finalStatus);
+        logger.log(product.getRuleKey(), finalStatus);
     }
 
     public void stop() {
@@ -122,6 +122,9 @@ public class PreOrderOperation implements ProductOperation {
 
     // Getters
     public boolean isRunning() { return isRunning; }
+
+    @Override
+    public boolean isCompleted() { return !isRunning; }
     public int getSuccessCount() { return successCount; }
     public int getAttemptCount() { return attemptCount; }
     public PublishMode getPublishMode() { return publishMode; }
@@ -0,0 +1,19 @@
+package org.example.service.strategy;
+
+import org.example.model.Product;
+
+public interface ProductOperation {
+    void execute(Product product) throws Exception;
+
+    // 搜索结果中出现从未见过的商品ID时调用，默认不处理
+    default void onNewListing(Product product, long goodsId, double price) throws Exception {
+    }
+
+    // 单次操作已经完成，重启后不应再次执行
+    default boolean isCompleted() {
+        return false;
+    }
+}
+
+
+
@@ -0,0 +1,313 @@
+package org.example.service.trigger;
+
+import java.util.List;
+
+// 触发条件的节点。静态方法即构建接口，文本规则由TriggerParser解析后也调用这些方法；
+// 有状态的节点(均价、分位数、连续确认)每次价格都会更新，不受&&、||短路影响
+public abstract class Condition {
+    // 窗口和确认次数的上限：历史缓冲区按最大窗口预先分配，过大的窗口会占用大量内存
+    public static final int MAX_WINDOW = 10_000;
+
+    abstract boolean test(TickState state);
+
+    // 每次价格到达时按后序(子节点在前)调用一次，只有有状态的节点需要实现
+    void update(TickState state) {}
+
+    // 按后序收集有状态的节点
+    void collectStateful(List<Condition> out) {}
+
+    // 需要保留的历史价格数量
+    int window() {
+        return 0;
+    }
+
+    public enum Operator {
+        LT("<"), LE("<="), GT(">"), GE(">=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean apply(double left, double right) {
+            switch (this) {
+                case LT: return left < right;
+                case LE: return left <= right;
+                case GT: return left > right;
+                default: return left >= right;
+            }
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    // price <op> value
+    public static Condition price(Operator operator, double value) {
+        return new PriceCompare(operator, value, false);
+    }
+
+    // price <op> target，目标价格在每次判断时读取，界面上修改后立即生效
+    public static Condition priceToTarget(Operator operator) {
+        return new PriceCompare(operator, 0, true);
+    }
+
+    // 当前价格比之前window次价格的均值低percent%以上
+    public static Condition dropFromAverage(int window, double percent) {
+        return new DropFromAverage(window, percent);
+    }
+
+    // 当前价格不高于之前window次价格的第percentile百分位
+    public static Condition belowPercentile(double percentile, int window) {
+        return new BelowPercentile(percentile, window);
+    }
+
+    // 条件连续times次价格都满足才成立
+    public static Condition confirmed(int times, Condition condition) {
+        return new Confirmed(times, condition);
+    }
+
+    // 本地时间在[fromMinute, toMinute)内，from大于to表示跨过零点
+    public static Condition timeWindow(int fromMinute, int toMinute) {
+        return new TimeWindow(fromMinute, toMinute);
+    }
+
+    public static Condition and(Condition left, Condition right) {
+        return new And(left, right);
+    }
+
+    public static Condition or(Condition left, Condition right) {
+        return new Or(left, right);
+    }
+
+    public static Condition not(Condition condition) {
+        return new Not(condition);
+    }
+
+    private static final class PriceCompare extends Condition {
+        private final Operator operator;
+        private final double value;
+        private final boolean toTarget;
+
+        PriceCompare(Operator operator, double value, boolean toTarget) {
+            this.operator = operator;
+            this.value = value;
+            this.toTarget = toTarget;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            return operator.apply(state.price, toTarget ? state.target : value);
+        }
+    }
+
+    // 窗口内价格之和随每次价格增量维护，不重新扫描
+    private static final class DropFromAverage extends Condition {
+        private final int window;
+        private final double percent;
+        private double sum;
+
+        DropFromAverage(int window, double percent) {
+            if (window <= 0 || window > MAX_WINDOW) {
+                throw new IllegalArgumentException("均价窗口须在1到" + MAX_WINDOW + "之间");
+            }
+            this.window = window;
+            this.percent = percent;
+        }
+
+        @Override
+        void update(TickState state) {
+            if (state.size() >= 1) {
+                sum += state.ago(1);
+            }
+            if (state.size() > window) {
+                sum -= state.ago(window + 1);
+            }
+        }
+
+        @Override
+        boolean test(TickState state) {
+            if (state.size() < window) {
+                return false;
+            }
+            double average = sum / window;
+            return average > 0 && (average - state.price) * 100 >= percent * average;
+        }
+
+        @Override
+        void collectStateful(List<Condition> out) {
+            out.add(this);
+        }
+
+        @Override
+        int window() {
+            return window;
+        }
+    }
+
+    // 统计窗口内低于当前价格的次数，窗口未满时不成立
+    private static final class BelowPercentile extends Condition {
+        private final double percentile;
+        private final int window;
+
+        BelowPercentile(double percentile, int window) {
+            if (window <= 0 || window > MAX_WINDOW || percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("分位数须在0到100之间，窗口须在1到" + MAX_WINDOW + "之间");
+            }
+            this.percentile = percentile;
+            this.window = window;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            if (state.size() < window) {
+                return false;
+            }
+            int below = 0;
+            for (int i = 1; i <= window; i++) {
+                if (state.ago(i) < state.price) {
+                    below++;
+                }
+            }
+            return below * 100 <= percentile * window;
+        }
+
+        @Override
+        int window() {
+            return window;
+        }
+    }
+
+    private static final class Confirmed extends Condition {
+        private final int times;
+        private final Condition condition;
+        private int streak;
+
+        Confirmed(int times, Condition condition) {
+            if (times <= 0 || times > MAX_WINDOW) {
+                throw new IllegalArgumentException("确认次数须在1到" + MAX_WINDOW + "之间");
+            }
+            this.times = times;
+            this.condition = condition;
+        }
+
+        @Override
+        void update(TickState state) {
+            streak = condition.test(state) ? streak + 1 : 0;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            return streak >= times;
+        }
+
+        @Override
+        void collectStateful(List<Condition> out) {
+            condition.collectStateful(out);
+            out.add(this);
+        }
+
+        @Override
+        int window() {
+            return condition.window();
+        }
+    }
+
+    private static final class TimeWindow extends Condition {
+        private final int fromMinute;
+        private final int toMinute;
+
+        TimeWindow(int fromMinute, int toMinute) {
+            if (fromMinute < 0 || fromMinute >= 1440 || toMinute < 0 || toMinute > 1440) {
+                throw new IllegalArgumentException("时间段超出范围");
+            }
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            int minute = state.minuteOfDay;
+            return fromMinute <= toMinute
+                    ? minute >= fromMinute && minute < toMinute
+                    : minute >= fromMinute || minute < toMinute;
+        }
+    }
+
+    private static final class And extends Condition {
+        private final Condition left;
+        private final Condition right;
+
+        And(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            return left.test(state) && right.test(state);
+        }
+
+        @Override
+        void collectStateful(List<Condition> out) {
+            left.collectStateful(out);
+            right.collectStateful(out);
+        }
+
+        @Override
+        int window() {
+            return Math.max(left.window(), right.window());
+        }
+    }
+
+    private static final class Or extends Condition {
+        private final Condition left;
+        private final Condition right;
+
+        Or(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            return left.test(state) || right.test(state);
+        }
+
+        @Override
+        void collectStateful(List<Condition> out) {
+            left.collectStateful(out);
+            right.collectStateful(out);
+        }
+
+        @Override
+        int window() {
+            return Math.max(left.window(), right.window());
+        }
+    }
+
+    private static final class Not extends Condition {
+        private final Condition condition;
+
+        Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        boolean test(TickState state) {
+            return !condition.test(state);
+        }
+
+        @Override
+        void collectStateful(List<Condition> out) {
+            condition.collectStateful(out);
+        }
+
+        @Override
+        int window() {
+            return condition.window();
+        }
+    }
+}
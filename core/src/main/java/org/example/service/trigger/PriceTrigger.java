@@ -0,0 +1,71 @@
+package org.example.service.trigger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+// 编译后的触发规则。每个监控持有自己的实例(条件节点带状态，不能在规则之间共用)，
+// 每次新的搜索结果调用一次evaluate：先按后序更新有状态的节点，再求值，最后把本次价格写入历史。
+// 求值过程只读写基本类型字段，不分配对象
+//
+// 文本规则示例:
+//   price <= target
+//   price <= target && drop(20) >= 5
+//   confirm(3, pct(10, 50)) && time(09:30-23:00)
+//   (price < 12.5 || drop(10) >= 8) && !time(02:00-06:00)
+public final class PriceTrigger {
+    public static final String DEFAULT_EXPRESSION = "price <= target";
+
+    private final String expression;
+    private final Condition root;
+    private final Condition[] stateful;
+    private final TickState state;
+    private final TimeZone zone = TimeZone.getDefault();
+    // 只由轮询线程写入，统计输出时读取
+    private volatile long evaluations;
+    private volatile long fired;
+
+    private PriceTrigger(String expression, Condition root) {
+        this.expression = expression;
+        this.root = root;
+        List<Condition> nodes = new ArrayList<>();
+        root.collectStateful(nodes);
+        this.stateful = nodes.toArray(new Condition[0]);
+        // 均价窗口增量维护时需要取到窗口外的一个价格
+        this.state = new TickState(root.window() + 1);
+    }
+
+    // 解析失败时抛出IllegalArgumentException，消息中带有出错位置
+    public static PriceTrigger compile(String expression) {
+        String text = expression == null || expression.trim().isEmpty() ? DEFAULT_EXPRESSION : expression.trim();
+        return new PriceTrigger(text, new TriggerParser(text).parse());
+    }
+
+    // 由构建接口组装的条件，description只用于显示和保存
+    public static PriceTrigger of(String description, Condition root) {
+        return new PriceTrigger(description, root);
+    }
+
+    public static PriceTrigger defaultTrigger() {
+        return compile(DEFAULT_EXPRESSION);
+    }
+
+    public boolean evaluate(double price, double target, long timeMillis) {
+        state.begin(price, target, timeMillis, zone.getOffset(timeMillis));
+        for (Condition node : stateful) {
+            node.update(state);
+        }
+        boolean result = root.test(state);
+        state.commit();
+        evaluations++;
+        if (result) {
+            fired++;
+        }
+        return result;
+    }
+
+    public String getExpression() { return expression; }
+    public boolean isDefault() { return DEFAULT_EXPRESSION.equals(expression); }
+    public long getEvaluationCount() { return evaluations; }
+    public long getFiredCount() { return fired; }
+}
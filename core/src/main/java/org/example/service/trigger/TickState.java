@@ -0,0 +1,45 @@
+package org.example.service.trigger;
+
+// 一个触发规则的逐次价格状态，只包含基本类型字段和定长环形缓冲区，更新时不分配对象。
+// 只由所属监控的轮询线程访问
+final class TickState {
+    private static final long DAY_MS = 86_400_000L;
+
+    // 环形缓冲区保存之前的价格(不含本次)，容量为规则中最大的窗口
+    private final double[] history;
+    private int head;
+    private int size;
+
+    double price;
+    double target;
+    int minuteOfDay;
+
+    TickState(int capacity) {
+        this.history = new double[Math.max(capacity, 1)];
+    }
+
+    void begin(double price, double target, long timeMillis, int zoneOffsetMs) {
+        this.price = price;
+        this.target = target;
+        this.minuteOfDay = (int) (Math.floorMod(timeMillis + zoneOffsetMs, DAY_MS) / 60_000L);
+    }
+
+    // 本次价格在所有条件更新后才写入历史，窗口统计的都是之前的价格
+    void commit() {
+        head = head + 1 == history.length ? 0 : head + 1;
+        history[head] = price;
+        if (size < history.length) {
+            size++;
+        }
+    }
+
+    // ago=1表示上一次的价格，ago不能超过size()
+    double ago(int ago) {
+        int index = head - ago + 1;
+        return history[index < 0 ? index + history.length : index];
+    }
+
+    int size() {
+        return size;
+    }
+}
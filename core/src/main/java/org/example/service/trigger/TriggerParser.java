@@ -0,0 +1,208 @@
+package org.example.service.trigger;
+
+// 触发规则的递归下降解析器，只在编译时运行
+//
+//   expr    := and ('||' and)*
+//   and     := unary ('&&' unary)*
+//   unary   := '!' unary | '(' expr ')' | atom
+//   atom    := 'price' op (number | 'target')
+//            | 'drop' '(' 窗口 ')' '>=' number ['%']
+//            | 'pct' '(' 百分位 ',' 窗口 ')'
+//            | 'confirm' '(' 次数 ',' expr ')'
+//            | 'time' '(' HH:MM '-' HH:MM ')'
+//   op      := '<' | '<=' | '>' | '>='
+final class TriggerParser {
+    private final String text;
+    private int pos;
+
+    TriggerParser(String text) {
+        this.text = text;
+    }
+
+    Condition parse() {
+        Condition condition = parseOr();
+        skipSpaces();
+        if (pos < text.length()) {
+            throw error("多余的内容");
+        }
+        return condition;
+    }
+
+    private Condition parseOr() {
+        Condition left = parseAnd();
+        while (accept("||")) {
+            left = Condition.or(left, parseAnd());
+        }
+        return left;
+    }
+
+    private Condition parseAnd() {
+        Condition left = parseUnary();
+        while (accept("&&")) {
+            left = Condition.and(left, parseUnary());
+        }
+        return left;
+    }
+
+    private Condition parseUnary() {
+        if (accept("!")) {
+            return Condition.not(parseUnary());
+        }
+        if (accept("(")) {
+            Condition inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        String word = parseWord();
+        switch (word) {
+            case "price":
+                Condition.Operator operator = parseOperator();
+                if (acceptWord("target")) {
+                    return Condition.priceToTarget(operator);
+                }
+                return Condition.price(operator, parseNumber());
+            case "drop": {
+                expect("(");
+                int window = parseCount("均价窗口");
+                expect(")");
+                expect(">=");
+                double percent = parseNumber();
+                accept("%");
+                return Condition.dropFromAverage(window, percent);
+            }
+            case "pct": {
+                expect("(");
+                double percentile = parseNumber();
+                expect(",");
+                int window = parseCount("分位数窗口");
+                expect(")");
+                return Condition.belowPercentile(percentile, window);
+            }
+            case "confirm": {
+                expect("(");
+                int times = parseCount("确认次数");
+                expect(",");
+                Condition inner = parseOr();
+                expect(")");
+                return Condition.confirmed(times, inner);
+            }
+            case "time": {
+                expect("(");
+                int from = parseClock();
+                expect("-");
+                int to = parseClock();
+                expect(")");
+                return Condition.timeWindow(from, to);
+            }
+            default:
+                throw error(word.isEmpty() ? "缺少条件" : "未知的条件: " + word);
+        }
+    }
+
+    private Condition.Operator parseOperator() {
+        if (accept("<=")) {
+            return Condition.Operator.LE;
+        }
+        if (accept(">=")) {
+            return Condition.Operator.GE;
+        }
+        if (accept("<")) {
+            return Condition.Operator.LT;
+        }
+        if (accept(">")) {
+            return Condition.Operator.GT;
+        }
+        throw error("缺少比较运算符");
+    }
+
+    private String parseWord() {
+        skipSpaces();
+        int start = pos;
+        while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+            pos++;
+        }
+        return text.substring(start, pos);
+    }
+
+    private boolean acceptWord(String word) {
+        int saved = pos;
+        if (parseWord().equals(word)) {
+            return true;
+        }
+        pos = saved;
+        return false;
+    }
+
+    private double parseNumber() {
+        skipSpaces();
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("缺少数字");
+        }
+        try {
+            return Double.parseDouble(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("无效的数字: " + text.substring(start, pos));
+        }
+    }
+
+    private int parseInt() {
+        double value = parseNumber();
+        if (value != Math.rint(value) || value > Integer.MAX_VALUE) {
+            throw error("需要整数");
+        }
+        return (int) value;
+    }
+
+    // 窗口和次数须在1到Condition.MAX_WINDOW之间，出错位置指向数字开头
+    private int parseCount(String what) {
+        skipSpaces();
+        int start = pos;
+        int value = parseInt();
+        if (value < 1 || value > Condition.MAX_WINDOW) {
+            pos = start;
+            throw error(what + "须在1到" + Condition.MAX_WINDOW + "之间");
+        }
+        return value;
+    }
+
+    // HH:MM，24:00表示一天结束
+    private int parseClock() {
+        int hour = parseInt();
+        expect(":");
+        int start = pos;
+        int minute = parseInt();
+        if (pos - start != 2 || minute >= 60 || hour > 24 || (hour == 24 && minute != 0)) {
+            throw error("时间格式应为HH:MM");
+        }
+        return hour * 60 + minute;
+    }
+
+    private boolean accept(String token) {
+        skipSpaces();
+        if (text.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("缺少'" + token + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("触发条件语法错误(第%d个字符): %s", pos + 1, message));
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 把二进制日志还原为文本
+// 用法: java -cp product-monitor.jar org.example.util.BinaryLogDecoder [logs/binlog 或 xxx.dict] [来源]
+public class BinaryLogDecoder {
+    private static final Logger.LogLevel[] LEVELS = Logger.LogLevel.values();
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final Map<Integer, String> sources = new HashMap<>();
+    private final Map<Integer, String> templates = new HashMap<>();
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public static void main(String[] args) throws IOException {
+        Path target = Paths.get(args.length > 0 ? args[0] : "logs/binlog");
+        String sourceFilter = args.length > 1 ? args[1] : null;
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        for (Path dictionary : findDictionaries(target)) {
+            new BinaryLogDecoder().decodeRun(dictionary, sourceFilter, out);
+        }
+        out.flush();
+    }
+
+    private static List<Path> findDictionaries(Path target) throws IOException {
+        if (!Files.isDirectory(target)) {
+            return List.of(target);
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(path -> path.toString().endsWith(BinaryLogSink.DICTIONARY_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public void decodeRun(Path dictionary, String sourceFilter, PrintWriter out) throws IOException {
+        loadDictionary(dictionary);
+        String fileName = dictionary.getFileName().toString();
+        String runName = fileName.substring(0, fileName.length() - BinaryLogSink.DICTIONARY_SUFFIX.length());
+        for (Path segment : findSegments(dictionary.toAbsolutePath().getParent(), runName)) {
+            decodeSegment(segment, sourceFilter, out);
+        }
+    }
+
+    private void loadDictionary(Path dictionary) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(dictionary));
+        while (buffer.remaining() >= 9) {
+            byte kind = buffer.get();
+            int id = buffer.getInt();
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break; // 写入中断的残缺条目
+            }
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            (kind == BinaryLogSink.DICT_SOURCE ? sources : templates).put(id, value);
+        }
+    }
+
+    private static List<Path> findSegments(Path directory, String runName) throws IOException {
+        String prefix = runName + ".";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(BinaryLogSink.SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingInt(BinaryLogDecoder::segmentIndex))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        String withoutSuffix = name.substring(0, name.length() - BinaryLogSink.SEGMENT_SUFFIX.length());
+        return Integer.parseInt(withoutSuffix.substring(withoutSuffix.lastIndexOf('.') + 1));
+    }
+
+    private void decodeSegment(Path segment, String sourceFilter, PrintWriter out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        if (buffer.remaining() < BinaryLogSink.SEGMENT_HEADER_SIZE || buffer.getInt() != BinaryLogSink.MAGIC) {
+            System.err.println("不是有效的二进制日志: " + segment);
+            return;
+        }
+        short version = buffer.getShort();
+        if (version != BinaryLogSink.VERSION) {
+            System.err.println("不支持的二进制日志版本" + version + ": " + segment);
+            return;
+        }
+        buffer.getShort(); // 保留
+        buffer.getInt();   // 段序号
+        long timestamp = buffer.getLong();
+
+        StringBuilder line = new StringBuilder(256);
+        // 预分配的文件尾部全为0，长度为0即表示本段结束
+        while (buffer.hasRemaining()) {
+            int length = (int) getVarLong(buffer);
+            int start = buffer.position();
+            if (length <= 0 || start + length > buffer.limit()) {
+                break;
+            }
+            timestamp += unZigZag(getVarLong(buffer));
+            Logger.LogLevel level = LEVELS[Math.min(buffer.get() & 0xFF, LEVELS.length - 1)];
+            String source = sources.getOrDefault((int) getVarLong(buffer), "unknown");
+            int templateId = (int) getVarLong(buffer);
+            Object[] args = new Object[buffer.get() & 0xFF];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readArg(buffer);
+            }
+            buffer.position(start + length);
+            if (sourceFilter != null && !sourceFilter.equals(source)) {
+                continue;
+            }
+
+            line.setLength(0);
+            line.append('[').append(TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone)))
+                    .append("][").append(level).append("][").append(source).append("] ");
+            if (templateId == BinaryLogSink.PLAIN_MESSAGE) {
+                line.append(args.length > 0 ? args[0] : "");
+            } else {
+                LogFormatter.render(line, templates.getOrDefault(templateId - 1, "<未知模板" + templateId + ">"), args);
+            }
+            out.println(line);
+        }
+    }
+
+    private static Object readArg(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case BinaryLogSink.ARG_LONG:
+                return unZigZag(getVarLong(buffer));
+            case BinaryLogSink.ARG_DOUBLE:
+                return buffer.getDouble();
+            case BinaryLogSink.ARG_STRING:
+                int length = (int) getVarLong(buffer);
+                String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return value;
+            default:
+                return null;
+        }
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && buffer.hasRemaining(); shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// 二进制日志：记录按固定格式追加到内存映射的分段文件，来源和消息模板只在字典文件中出现一次，
+// 可用BinaryLogDecoder还原为文本。只在日志线程中使用
+//
+// 段文件: 魔数(4) 版本(2) 保留(2) 段序号(4) 基准时间(8)，之后是连续的记录，长度为0表示结束
+// 记录:   长度(变长) 时间差(变长) 级别(1) 来源ID(变长) 模板ID+1(变长，0表示无模板) 参数个数(1) 参数...
+// 参数:   类型(1) + 整数(变长)/浮点数(8)/字符串(变长长度+UTF-8)
+class BinaryLogSink {
+    static final int MAGIC = 0x424C4F47; // "BLOG"
+    static final short VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 20;
+    static final int PLAIN_MESSAGE = 0;
+    static final byte DICT_SOURCE = 'S';
+    static final byte DICT_TEMPLATE = 'T';
+    static final byte ARG_NULL = 0;
+    static final byte ARG_LONG = 1;
+    static final byte ARG_DOUBLE = 2;
+    static final byte ARG_STRING = 3;
+    static final String SEGMENT_SUFFIX = ".blog";
+    static final String DICTIONARY_SUFFIX = ".dict";
+
+    private static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_STRING_CHARS = 64 * 1024;
+    private static final int MAX_ARGS = 255;
+
+    private final Path directory;
+    private final String runName;
+    private final Map<String, Integer> sourceIds = new HashMap<>();
+    private final Map<String, Integer> templateIds = new HashMap<>();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer record = ByteBuffer.allocate(64 * 1024);
+    private final FileChannel dictionary;
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+    private long lastTimestamp;
+    private long bytesWritten;
+
+    // 每次启动或跨天使用新的文件名前缀，字典ID只在同一前缀内有效
+    BinaryLogSink(Path directory, String date) throws IOException {
+        this.directory = directory;
+        this.runName = date + "_" + System.currentTimeMillis();
+        Files.createDirectories(directory);
+        this.dictionary = FileChannel.open(directory.resolve(runName + DICTIONARY_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // 返回写入的字节数
+    int write(String source, Logger.LogLevel level, long timestamp,
+              String message, String template, Object[] args) throws IOException {
+        int sourceId = intern(sourceIds, DICT_SOURCE, source);
+        int templateId = template != null ? intern(templateIds, DICT_TEMPLATE, template) + 1 : PLAIN_MESSAGE;
+        if (segment == null) {
+            openNextSegment(timestamp);
+        }
+
+        record.clear();
+        putVarLong(record, zigZag(timestamp - lastTimestamp));
+        record.put((byte) level.ordinal());
+        putVarLong(record, sourceId);
+        putVarLong(record, templateId);
+        if (template == null) {
+            record.put((byte) 1);
+            putString(message);
+        } else {
+            int count = args == null ? 0 : Math.min(args.length, MAX_ARGS);
+            record.put((byte) count);
+            for (int i = 0; i < count; i++) {
+                putArg(args[i]);
+            }
+        }
+        int length = record.position() + varLongSize(record.position());
+        if (length > SEGMENT_SIZE - SEGMENT_HEADER_SIZE) {
+            throw new IOException("日志记录过大: " + length + "字节");
+        }
+        if (segment.remaining() < length) {
+            // 新段以本条记录的时间为基准，需要重新编码时间差
+            openNextSegment(timestamp);
+            return write(source, level, timestamp, message, template, args);
+        }
+        record.flip();
+        putVarLong(segment, record.remaining());
+        segment.put(record);
+        lastTimestamp = timestamp;
+        bytesWritten += length;
+        return length;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        try {
+            dictionary.close();
+        } catch (IOException e) {
+            System.err.println("关闭二进制日志字典失败: " + e.getMessage());
+        }
+    }
+
+    private int intern(Map<String, Integer> ids, byte kind, String value) throws IOException {
+        String key = value == null ? "unknown" : value;
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        int newId = ids.size();
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(1 + 4 + 4 + bytes.length);
+        entry.put(kind).putInt(newId).putInt(bytes.length).put(bytes).flip();
+        // 字典先于引用它的记录写出
+        while (entry.hasRemaining()) {
+            dictionary.write(entry);
+        }
+        ids.put(key, newId);
+        return newId;
+    }
+
+    private void putArg(Object arg) {
+        if (arg == null) {
+            ensureCapacity(1);
+            record.put(ARG_NULL);
+        } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            ensureCapacity(11);
+            record.put(ARG_LONG);
+            putVarLong(record, zigZag(((Number) arg).longValue()));
+        } else if (arg instanceof Double || arg instanceof Float) {
+            ensureCapacity(9);
+            record.put(ARG_DOUBLE).putDouble(((Number) arg).doubleValue());
+        } else {
+            ensureCapacity(1);
+            record.put(ARG_STRING);
+            putString(arg instanceof CharSequence ? (CharSequence) arg : String.valueOf(arg));
+        }
+    }
+
+    // 长度前缀 + UTF-8字节，超长的字符串截断
+    private void putString(CharSequence value) {
+        CharSequence text = value == null ? "null" : value;
+        int chars = Math.min(text.length(), MAX_STRING_CHARS);
+        ensureCapacity(5 + chars * 3);
+        // 先编码到长度前缀之后，再按实际字节数把内容前移到变长前缀之后
+        int lengthPosition = record.position();
+        int start = lengthPosition + 5;
+        record.position(start);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(text, 0, chars), record, true);
+        encoder.flush(record);
+        int bytes = record.position() - start;
+        record.position(lengthPosition);
+        putVarLong(record, bytes);
+        int contentPosition = record.position();
+        if (contentPosition != start) {
+            System.arraycopy(record.array(), start, record.array(), contentPosition, bytes);
+        }
+        record.position(contentPosition + bytes);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (record.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+        record.flip();
+        larger.put(record);
+        record = larger;
+    }
+
+    private void openNextSegment(long baseTimestamp) throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segmentIndex++;
+        Path path = directory.resolve(runName + "." + segmentIndex + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        }
+        segment.putInt(MAGIC);
+        segment.putShort(VERSION);
+        segment.putShort((short) 0);
+        segment.putInt(segmentIndex);
+        segment.putLong(baseTimestamp);
+        lastTimestamp = baseTimestamp;
+    }
+}
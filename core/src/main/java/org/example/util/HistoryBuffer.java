@@ -0,0 +1,56 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// 固定容量的覆盖式环形缓冲：只允许一个线程写入，写满后覆盖最旧的元素，
+// 其他线程可以随时无锁地读取最近元素的快照
+public class HistoryBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private volatile long written;
+
+    public HistoryBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("历史缓冲容量必须大于0: " + capacity);
+        }
+        this.capacity = capacity;
+        // 多留一个槽位给正在写入的元素，读取时不会把它和最旧的元素混淆
+        this.slots = new AtomicReferenceArray<>(capacity + 1);
+    }
+
+    // 只能由写线程调用
+    public void add(E element) {
+        long position = written;
+        slots.set(slot(position), element);
+        written = position + 1;
+    }
+
+    // 按写入顺序返回最近的元素，读取期间被覆盖的元素会被剔除
+    public List<E> snapshot() {
+        long end = written;
+        long start = Math.max(0, end - capacity);
+        List<E> result = new ArrayList<>((int) (end - start));
+        for (long position = start; position < end; position++) {
+            result.add(slots.get(slot(position)));
+        }
+        long oldestValid = written - capacity;
+        if (oldestValid > start) {
+            result.subList(0, (int) Math.min(oldestValid - start, result.size())).clear();
+        }
+        return result;
+    }
+
+    public int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int slot(long position) {
+        return (int) (position % slots.length());
+    }
+}
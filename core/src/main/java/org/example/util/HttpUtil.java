@@ -1,6 +1,7 @@
 package org.example.util;
 
 import org.example.config.Config;
+import org.example.config.ConfigSnapshot;
 import org.json.JSONObject;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -15,29 +16,28 @@ public class HttpUtil {
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
-    private static final int MAX_RETRIES = config.getInt("MAX_RETRIES");
-    private static final long RETRY_DELAY_MS = config.getInt("RETRY_DELAY_MS");
-
     public static JSONObject post(String url, JSONObject body, String token)
             throws Exception {
+        // 每次请求取一次快照，配置重新加载后下一个请求即生效
+        ConfigSnapshot settings = config.getSnapshot();
+        int maxRetries = Math.max(1, settings.getMaxRetries());
         int retries = 0;
         Exception lastException = null;
 
-        while (retries < MAX_RETRIES) {
+        while (retries < maxRetries) {
             try {
                 return executePost(url, body, token);
             } catch (Exception e) {
                 lastException = e;
                 retries++;
-                if (retries < MAX_RETRIES) {
-                    logger.log("HTTP", String.format("请求失败，第%d次重试", retries),
-                            Logger.LogLevel.WARN);
-                    Thread.sleep(RETRY_DELAY_MS * retries);
+                if (retries < maxRetries) {
+                    logger.log("HTTP", Logger.LogLevel.WARN, "请求失败，第{}次重试", retries);
+                    Thread.sleep(settings.getRetryDelayMs() * retries);
                 }
             }
         }
 
-        String errorMsg = "请求失败，已重试" + MAX_RETRIES + "次";
+        String errorMsg = "请求失败，已重试" + maxRetries + "次";
         logger.log("HTTP", errorMsg, Logger.LogLevel.ERROR);
         throw new Exception(errorMsg, lastException);
     }
@@ -46,30 +46,24 @@ public class HttpUtil {
                                           String token) throws Exception {
         HttpRequest request = createRequest(url, body, token);
 
-        // 打印详细的请求信息
-        logger.log("HTTP", String.format("""
+        // 打印详细的请求信息，请求体和头部在日志线程中才转成文本
+        logger.log("HTTP", Logger.LogLevel.DEBUG, """
             发送请求:
-            URL: %s
-            Headers: %s
-            Body: %s""",
-                        url,
-                        request.headers().map().toString(),
-                        body.toString(2)),
-                Logger.LogLevel.DEBUG);
+            URL: {}
+            Headers: {}
+            Body: {}""",
+                url, request.headers().map(), body);
 
         HttpResponse<String> response = client.send(request,
                 HttpResponse.BodyHandlers.ofString());
 
-        // 打印详细的响应信息
-        logger.log("HTTP", String.format("""
+        // 打印详细的响应信息，直接记录原始响应体，不再为日志重新解析和缩进
+        logger.log("HTTP", Logger.LogLevel.DEBUG, """
             收到响应:
-            Status: %d
-            Headers: %s
-            Body: %s""",
-                        response.statusCode(),
-                        response.headers().map().toString(),
-                        new JSONObject(response.body()).toString(2)),
-                Logger.LogLevel.DEBUG);
+            Status: {}
+            Headers: {}
+            Body: {}""",
+                response.statusCode(), response.headers().map(), response.body());
 
         if (response.statusCode() >= 500) {
             String errorMsg = "服务器错误: " + response.statusCode();
@@ -0,0 +1,267 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// 管理已轮转的日志分段：在低优先级后台线程中压缩为gzip，并按保留天数和总磁盘预算删除最旧的分段。
+// 启动时只扫描一次目录建立清单，之后随轮转和压缩增量更新
+class LogArchiver {
+    // <来源>_<日期>[.<分段号>].log[.gz]
+    private static final Pattern FILE_NAME =
+            Pattern.compile("(.+)_(\\d{4}-\\d{2}-\\d{2})(?:\\.(\\d+))?\\.log(\\.gz)?");
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path logDir;
+    private final ExecutorService compressor;
+    // 以下字段由synchronized保护，日志线程和压缩线程都会访问
+    private final TreeSet<ArchivedFile> inventory = new TreeSet<>(ArchivedFile.OLDEST_FIRST);
+    private final Map<String, Integer> lastSegments = new HashMap<>();
+    private long totalBytes;
+    private long maxTotalBytes;
+    private int retentionDays;
+
+    LogArchiver(Path logDir, long maxTotalBytes, int retentionDays) {
+        this.logDir = logDir;
+        this.maxTotalBytes = maxTotalBytes;
+        this.retentionDays = retentionDays;
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LogArchiver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        compressor.execute(this::scan);
+    }
+
+    // 解析日志文件名，不是日志文件时返回null
+    static LogFileName parse(Path path) {
+        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return new LogFileName(matcher.group(1), LocalDate.parse(matcher.group(2)),
+                    matcher.group(3) != null ? Integer.parseInt(matcher.group(3)) : -1,
+                    matcher.group(4) != null);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    synchronized void setLimits(long maxTotalBytes, int retentionDays) {
+        this.maxTotalBytes = maxTotalBytes;
+        this.retentionDays = retentionDays;
+        enforceLimits();
+    }
+
+    // 由日志线程调用：把写满的当前文件改名为下一个分段号，连同索引一起交给后台压缩
+    void rotate(Path activeFile, String safeName, String date) throws IOException {
+        Path rotated;
+        synchronized (this) {
+            // 启动扫描可能还没完成，跳过已存在的分段号
+            String key = safeName + "_" + date;
+            int segment = lastSegments.getOrDefault(key, 0);
+            do {
+                segment++;
+                rotated = activeFile.resolveSibling(key + "." + segment + ".log");
+            } while (Files.exists(rotated) || Files.exists(rotated.resolveSibling(rotated.getFileName() + GZIP_SUFFIX)));
+            lastSegments.put(key, segment);
+        }
+        Files.move(activeFile, rotated);
+        Path index = LogSearcher.indexPathOf(activeFile);
+        if (Files.exists(index)) {
+            Files.move(index, LogSearcher.indexPathOf(rotated), StandardCopyOption.REPLACE_EXISTING);
+        }
+        archive(rotated);
+    }
+
+    // 不再写入的日志文件(跨天关闭或已轮转)进入清单并排队压缩
+    void archive(Path file) {
+        LogFileName name = parse(file);
+        if (name == null) {
+            return;
+        }
+        // 压缩完成后再按预算清理，避免按压缩前的大小误删
+        synchronized (this) {
+            add(new ArchivedFile(file, name, sizeOf(file)));
+        }
+        compressor.execute(() -> compress(file, name));
+    }
+
+    synchronized void cleanUp() {
+        enforceLimits();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int getArchivedCount() {
+        return inventory.size();
+    }
+
+    // 启动时的唯一一次全目录扫描
+    private void scan() {
+        LocalDate today = LocalDate.now();
+        try (Stream<Path> files = Files.list(logDir)) {
+            files.forEach(file -> {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(TEMP_SUFFIX)) {
+                    deleteQuietly(file); // 上次压缩中断留下的临时文件
+                    return;
+                }
+                LogFileName name = parse(file);
+                if (name == null) {
+                    return;
+                }
+                synchronized (this) {
+                    if (name.segment > 0) {
+                        lastSegments.merge(name.source + "_" + name.date, name.segment, Math::max);
+                    }
+                    // 今天未编号的文件是正在写入的当前文件
+                    if (name.segment < 0 && !name.compressed && name.date.equals(today)) {
+                        return;
+                    }
+                    add(new ArchivedFile(file, name, sizeOf(file)));
+                }
+                if (!name.compressed) {
+                    compressor.execute(() -> compress(file, name));
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("扫描日志目录失败: " + e.getMessage());
+        }
+        synchronized (this) {
+            enforceLimits();
+        }
+    }
+
+    private void compress(Path file, LogFileName name) {
+        Path target = file.resolveSibling(file.getFileName() + GZIP_SUFFIX);
+        Path temp = file.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        synchronized (this) {
+            if (!inventory.contains(new ArchivedFile(file, name, 0))) {
+                return; // 已因超出预算被删除
+            }
+        }
+        try (InputStream input = Files.newInputStream(file);
+             OutputStream output = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            input.transferTo(output);
+        } catch (IOException e) {
+            System.err.println("压缩日志失败: " + file + ", " + e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(file);
+        } catch (IOException e) {
+            System.err.println("替换压缩日志失败: " + file + ", " + e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+        synchronized (this) {
+            if (remove(new ArchivedFile(file, name, 0))) {
+                add(new ArchivedFile(target, new LogFileName(name.source, name.date, name.segment, true), sizeOf(target)));
+            } else {
+                deleteQuietly(target);
+            }
+            enforceLimits();
+        }
+    }
+
+    // 从最旧的分段开始删除，直到满足保留天数和总大小限制
+    private void enforceLimits() {
+        LocalDate oldestKept = LocalDate.now().minusDays(retentionDays - 1L);
+        while (!inventory.isEmpty()) {
+            ArchivedFile oldest = inventory.first();
+            if (totalBytes <= maxTotalBytes && !oldest.name.date.isBefore(oldestKept)) {
+                break;
+            }
+            remove(oldest);
+            deleteQuietly(oldest.path);
+            deleteQuietly(LogSearcher.indexPathOf(oldest.path));
+        }
+    }
+
+    private void add(ArchivedFile file) {
+        if (inventory.add(file)) {
+            totalBytes += file.size;
+        }
+    }
+
+    private boolean remove(ArchivedFile key) {
+        ArchivedFile existing = inventory.ceiling(key);
+        if (existing == null || ArchivedFile.OLDEST_FIRST.compare(existing, key) != 0) {
+            return false;
+        }
+        inventory.remove(existing);
+        totalBytes -= existing.size;
+        return true;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("删除日志文件失败: " + file + ", " + e.getMessage());
+        }
+    }
+
+    static final class LogFileName {
+        final String source;
+        final LocalDate date;
+        final int segment; // 当前文件为-1
+        final boolean compressed;
+
+        LogFileName(String source, LocalDate date, int segment, boolean compressed) {
+            this.source = source;
+            this.date = date;
+            this.segment = segment;
+            this.compressed = compressed;
+        }
+    }
+
+    private static final class ArchivedFile {
+        // 同一文件压缩前后视为同一项；未编号的文件是当天最后一段
+        static final Comparator<ArchivedFile> OLDEST_FIRST = Comparator
+                .comparing((ArchivedFile file) -> file.name.date)
+                .thenComparing(file -> file.name.source)
+                .thenComparingInt(file -> file.name.segment < 0 ? Integer.MAX_VALUE : file.name.segment);
+
+        final Path path;
+        final LogFileName name;
+        final long size;
+
+        ArchivedFile(Path path, LogFileName name, long size) {
+            this.path = path;
+            this.name = name;
+            this.size = size;
+        }
+    }
+}
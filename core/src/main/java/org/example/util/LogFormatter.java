@@ -0,0 +1,122 @@
+package org.example.util;
+
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+// 日志线程专用的格式化器：复用StringBuilder、字符缓冲和编码器，时间前缀每秒只计算一次
+class LogFormatter {
+    private static final String PLACEHOLDER = "{}";
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final StringBuilder line = new StringBuilder(256);
+    private final char[] timeChars = new char[8];
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private char[] charScratch = new char[1024];
+    private CharBuffer charView = CharBuffer.wrap(charScratch);
+    private long cachedSecond = Long.MIN_VALUE;
+
+    // 生成 [HH:mm:ss][级别] 消息 + 换行，结果保存在内部缓冲中直到下一次调用
+    StringBuilder format(long timestamp, Logger.LogLevel level, String message,
+                         String template, Object[] args) {
+        line.setLength(0);
+        line.append('[');
+        appendTime(timestamp);
+        line.append("][").append(level.toString()).append("] ");
+        if (template != null) {
+            render(line, template, args);
+        } else {
+            line.append(message);
+        }
+        line.append(System.lineSeparator());
+        return line;
+    }
+
+    // 把当前行编码为UTF-8字节，返回可供写入的字符视图
+    CharBuffer chars() {
+        int length = line.length();
+        if (charScratch.length < length) {
+            charScratch = new char[Math.max(length, charScratch.length * 2)];
+            charView = CharBuffer.wrap(charScratch);
+        }
+        line.getChars(0, length, charScratch, 0);
+        charView.clear();
+        charView.limit(length);
+        return charView;
+    }
+
+    CharsetEncoder encoder() {
+        return encoder;
+    }
+
+    private void appendTime(long timestamp) {
+        long second = Math.floorDiv(timestamp, 1000);
+        if (second != cachedSecond) {
+            LocalTime time = Instant.ofEpochSecond(second).atZone(zone).toLocalTime();
+            writeTwoDigits(0, time.getHour());
+            timeChars[2] = ':';
+            writeTwoDigits(3, time.getMinute());
+            timeChars[5] = ':';
+            writeTwoDigits(6, time.getSecond());
+            cachedSecond = second;
+        }
+        line.append(timeChars);
+    }
+
+    private void writeTwoDigits(int offset, int value) {
+        timeChars[offset] = (char) ('0' + value / 10);
+        timeChars[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    // 依次用参数替换模板中的{}，浮点数固定保留两位小数
+    static StringBuilder render(StringBuilder target, String template, Object[] args) {
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while ((placeholder = template.indexOf(PLACEHOLDER, start)) >= 0) {
+            target.append(template, start, placeholder);
+            if (args != null && argIndex < args.length) {
+                appendArg(target, args[argIndex++]);
+            } else {
+                target.append(PLACEHOLDER);
+            }
+            start = placeholder + PLACEHOLDER.length();
+        }
+        return target.append(template, start, template.length());
+    }
+
+    private static void appendArg(StringBuilder target, Object arg) {
+        if (arg instanceof Double || arg instanceof Float) {
+            appendFixed2(target, ((Number) arg).doubleValue());
+        } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            target.append(((Number) arg).longValue());
+        } else if (arg instanceof CharSequence) {
+            target.append((CharSequence) arg);
+        } else {
+            target.append(arg);
+        }
+    }
+
+    private static void appendFixed2(StringBuilder target, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15) {
+            target.append(value);
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * 100);
+        if (value < 0 && scaled != 0) {
+            target.append('-');
+        }
+        target.append(scaled / 100).append('.');
+        long fraction = scaled % 100;
+        if (fraction < 10) {
+            target.append('0');
+        }
+        target.append(fraction);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.util;
+
+// 磁盘日志的查询条件，用Logger.query执行
+public class LogQuery {
+    private final String source;
+    private final Logger.LogLevel minLevel;
+    private final long from;
+    private final long to;
+    private final String contains;
+
+    private LogQuery(Builder builder) {
+        this.source = builder.source;
+        this.minLevel = builder.minLevel;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.contains = builder.contains;
+    }
+
+    public static class Builder {
+        private String source;
+        private Logger.LogLevel minLevel = Logger.LogLevel.DEBUG;
+        private long from = 0;
+        private long to = Long.MAX_VALUE;
+        private String contains;
+
+        // 不指定来源时查询所有来源
+        public Builder source(String source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder minLevel(Logger.LogLevel level) {
+            this.minLevel = level;
+            return this;
+        }
+
+        // 时间范围为毫秒时间戳，包含两端；文本日志只精确到秒
+        public Builder from(long timestamp) {
+            this.from = timestamp;
+            return this;
+        }
+
+        public Builder to(long timestamp) {
+            this.to = timestamp;
+            return this;
+        }
+
+        public Builder contains(String text) {
+            this.contains = text;
+            return this;
+        }
+
+        public LogQuery build() {
+            return new LogQuery(this);
+        }
+    }
+
+    boolean matches(Logger.LogEntry entry) {
+        if (entry.getLevel().ordinal() < minLevel.ordinal()) {
+            return false;
+        }
+        if (!isWithinRange(entry.getTimestamp())) {
+            return false;
+        }
+        return contains == null || entry.getMessage().contains(contains);
+    }
+
+    // 日志行的时间戳被截断到秒，同一秒内的都算在范围内
+    boolean isWithinRange(long secondTimestamp) {
+        return secondTimestamp + 999 >= from && secondTimestamp <= to;
+    }
+
+    public String getSource() { return source; }
+    public Logger.LogLevel getMinLevel() { return minLevel; }
+    public long getFrom() { return from; }
+    public long getTo() { return to; }
+    public String getContains() { return contains; }
+}
@@ -0,0 +1,284 @@
+package org.example.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+// 按LogQuery查询磁盘上的文本日志：先用.idx稀疏索引定位起始偏移，再逐条读取，
+// 超过结束时间后停止读取该文件
+class LogSearcher {
+    static final int INDEX_INTERVAL = 256;
+    static final int INDEX_ENTRY_SIZE = 16;
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int TIME_PREFIX_LENGTH = "[HH:mm:ss][".length();
+    private static final int[] TIME_DIGITS = {1, 2, 4, 5, 7, 8};
+
+    private final Path logDir;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    LogSearcher(Path logDir) {
+        this.logDir = logDir;
+    }
+
+    // 压缩后的分段沿用压缩前的索引，偏移为解压后的位置
+    static Path indexPathOf(Path logFile) {
+        String name = logFile.getFileName().toString();
+        if (name.endsWith(GZIP_SUFFIX)) {
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        return logFile.resolveSibling(name + INDEX_SUFFIX);
+    }
+
+    Stream<Logger.LogEntry> search(LogQuery query) {
+        List<LogFileRef> files = findFiles(query);
+        return files.stream().flatMap(file -> streamFile(file, query));
+    }
+
+    private List<LogFileRef> findFiles(LogQuery query) {
+        LocalDate firstDate = toDate(query.getFrom());
+        LocalDate lastDate = toDate(query.getTo());
+        String wantedName = query.getSource() != null ? Logger.sanitizeFileName(query.getSource()) : null;
+
+        List<LogFileRef> files = new ArrayList<>();
+        if (!Files.isDirectory(logDir)) {
+            return files;
+        }
+        try (Stream<Path> paths = Files.list(logDir)) {
+            paths.forEach(path -> {
+                LogArchiver.LogFileName name = LogArchiver.parse(path);
+                if (name == null || (wantedName != null && !wantedName.equals(name.source))) {
+                    return;
+                }
+                if (!name.date.isBefore(firstDate) && !name.date.isAfter(lastDate)) {
+                    files.add(new LogFileRef(path, query.getSource() != null ? query.getSource() : name.source, name));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取日志目录失败", e);
+        }
+        // 同一来源同一天先读已轮转的分段，最后读未编号的文件
+        files.sort(Comparator.comparing((LogFileRef file) -> file.date)
+                .thenComparing(file -> file.name.source)
+                .thenComparingInt(file -> file.name.segment < 0 ? Integer.MAX_VALUE : file.name.segment));
+        return files;
+    }
+
+    private LocalDate toDate(long timestamp) {
+        if (timestamp <= 0) {
+            return LocalDate.MIN;
+        }
+        if (timestamp == Long.MAX_VALUE) {
+            return LocalDate.MAX;
+        }
+        return Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+    }
+
+    private Stream<Logger.LogEntry> streamFile(LogFileRef file, LogQuery query) {
+        try {
+            long offset = findStartOffset(file.path, query.getFrom());
+            InputStream input;
+            if (file.name.compressed) {
+                // 压缩文件无法随机定位，只能解压跳过，但省去了逐行解析
+                input = new GZIPInputStream(Files.newInputStream(file.path), 64 * 1024);
+                input.skipNBytes(offset);
+            } else {
+                FileChannel channel = FileChannel.open(file.path, StandardOpenOption.READ);
+                channel.position(Math.min(offset, channel.size()));
+                input = Channels.newInputStream(channel);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            EntryIterator iterator = new EntryIterator(reader, file, query);
+            return StreamSupport.stream(
+                            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .filter(query::matches)
+                    .onClose(() -> closeQuietly(reader));
+        } catch (IOException e) {
+            System.err.println("读取日志文件失败: " + file.path + ", " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    // 二分查找最后一个时间早于起始时间的索引项，从它指向的行开始读；没有索引时从头读
+    private long findStartOffset(Path logFile, long from) {
+        Path indexPath = indexPathOf(logFile);
+        if (from <= 0 || !Files.exists(indexPath)) {
+            return 0;
+        }
+        try {
+            ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            int count = index.limit() / INDEX_ENTRY_SIZE;
+            int low = 0;
+            int high = count - 1;
+            long offset = 0;
+            // 行时间只精确到秒，向前多留一秒
+            long target = from - 1000;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long timestamp = index.getLong(mid * INDEX_ENTRY_SIZE);
+                if (timestamp < target) {
+                    offset = index.getLong(mid * INDEX_ENTRY_SIZE + 8);
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return offset;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            System.err.println("关闭日志文件失败: " + e.getMessage());
+        }
+    }
+
+    // 行首为"[HH:mm:ss][级别] "时返回级别结束的"]"位置，否则是续行，返回-1
+    private static int headerEnd(String line) {
+        if (line.length() <= TIME_PREFIX_LENGTH || line.charAt(0) != '[' || line.charAt(3) != ':'
+                || line.charAt(6) != ':' || line.charAt(9) != ']' || line.charAt(10) != '[') {
+            return -1;
+        }
+        for (int i : TIME_DIGITS) {
+            if (!Character.isDigit(line.charAt(i))) {
+                return -1;
+            }
+        }
+        int end = line.indexOf("] ", TIME_PREFIX_LENGTH);
+        return end > TIME_PREFIX_LENGTH ? end : -1;
+    }
+
+    private static int digits(String line, int offset) {
+        return (line.charAt(offset) - '0') * 10 + (line.charAt(offset + 1) - '0');
+    }
+
+    private static Logger.LogLevel parseLevel(String description) {
+        for (Logger.LogLevel level : Logger.LogLevel.values()) {
+            if (level.toString().equals(description)) {
+                return level;
+            }
+        }
+        return Logger.LogLevel.INFO;
+    }
+
+    private static final class LogFileRef {
+        final Path path;
+        final String source;
+        final LogArchiver.LogFileName name;
+        final LocalDate date;
+
+        LogFileRef(Path path, String source, LogArchiver.LogFileName name) {
+            this.path = path;
+            this.source = source;
+            this.name = name;
+            this.date = name.date;
+        }
+    }
+
+    // 一条日志可能跨多行，遇到下一个带时间前缀的行才结束
+    private final class EntryIterator implements Iterator<Logger.LogEntry> {
+        private final BufferedReader reader;
+        private final LogFileRef file;
+        private final LogQuery query;
+        private String pendingLine;
+        private int cachedSecondOfDay = -1;
+        private long cachedTimestamp;
+        private Logger.LogEntry next;
+        private boolean finished;
+
+        EntryIterator(BufferedReader reader, LogFileRef file, LogQuery query) {
+            this.reader = reader;
+            this.file = file;
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = readEntry();
+                if (next == null || next.getTimestamp() > query.getTo()) {
+                    // 之后的日志都晚于结束时间
+                    next = null;
+                    finished = true;
+                    closeQuietly(reader);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Logger.LogEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Logger.LogEntry entry = next;
+            next = null;
+            return entry;
+        }
+
+        private Logger.LogEntry readEntry() {
+            try {
+                String header = pendingLine != null ? pendingLine : reader.readLine();
+                pendingLine = null;
+                // 跳过开头不完整的续行
+                int levelEnd = -1;
+                while (header != null && (levelEnd = headerEnd(header)) < 0) {
+                    header = reader.readLine();
+                }
+                if (header == null) {
+                    return null;
+                }
+                String first = header.substring(levelEnd + 2);
+                StringBuilder message = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (headerEnd(line) >= 0) {
+                        pendingLine = line;
+                        break;
+                    }
+                    if (message == null) {
+                        message = new StringBuilder(first);
+                    }
+                    message.append('\n').append(line);
+                }
+                int secondOfDay = digits(header, 1) * 3600 + digits(header, 4) * 60 + digits(header, 7);
+                if (secondOfDay != cachedSecondOfDay) {
+                    cachedSecondOfDay = secondOfDay;
+                    cachedTimestamp = file.date.atTime(LocalTime.ofSecondOfDay(secondOfDay))
+                            .atZone(zone).toInstant().toEpochMilli();
+                }
+                return new Logger.LogEntry(file.source, message != null ? message.toString() : first,
+                        parseLevel(header.substring(TIME_PREFIX_LENGTH, levelEnd)), cachedTimestamp);
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取日志文件失败: " + file.path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,782 @@
+package org.example.util;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class Logger {
+    private static volatile Logger instance;
+    private static final String LOG_DIR = "logs";
+    private static final String BINARY_LOG_DIR = LOG_DIR + "/binlog";
+    private static final int DEFAULT_RETENTION_DAYS = 7; // 保留最近7天的日志
+    private static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    // 日志文件名中来源部分的最大字符数(不含日期和哈希)
+    private static final int MAX_FILE_NAME_CHARS = 64;
+    // JVM用于文件名的编码，LANG未设置时通常为ANSI_X3.4-1968
+    private static final Charset FILE_NAME_CHARSET = fileNameCharset();
+    private static final long DEFAULT_MAX_TOTAL_BYTES = 1024L * 1024 * 1024;
+
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final int FLUSH_THRESHOLD_BYTES = 64 * 1024;
+    private static final int FILE_BUFFER_SIZE = 32 * 1024;
+    private static final int QUEUE_CAPACITY = 32 * 1024;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int DEFAULT_SAMPLE_RATE = 10;
+    private static final Comparator<LogEntry> BY_SEQUENCE = Comparator.comparingLong(entry -> entry.sequence);
+
+    // 溢出策略为BLOCK的级别进入无损队列，DROP_OLDEST的级别进入单独的淘汰队列，其余进入可丢弃队列，都有界。
+    // 淘汰队列单独存放，淘汰最旧的日志时不会挤掉其他级别的日志
+    private final RingBufferQueue<LogEntry> losslessQueue;
+    private final RingBufferQueue<LogEntry> evictingQueue;
+    private final RingBufferQueue<LogEntry> lossyQueue;
+    private final AtomicLong sequence = new AtomicLong(0);
+    private final Thread loggerThread;
+    private volatile boolean running;
+    private volatile boolean writerParked;
+
+    private volatile OverflowPolicy[] overflowPolicies = {
+            OverflowPolicy.DROP_OLDEST, // DEBUG
+            OverflowPolicy.BLOCK,       // INFO: 下单、订单号等购买记录是INFO级别，不能丢
+            OverflowPolicy.BLOCK,       // WARN
+            OverflowPolicy.BLOCK        // ERROR
+    };
+    private volatile int sampleRate = DEFAULT_SAMPLE_RATE;
+    private volatile SinkMode sinkMode = SinkMode.TEXT;
+    private volatile long maxFileBytes = DEFAULT_MAX_FILE_BYTES;
+    private final LogArchiver archiver;
+    private final AtomicLong sampleCounter = new AtomicLong(0);
+    private final Map<String, LongAdder> droppedBySource = new ConcurrentHashMap<>();
+    private final LongAdder droppedTotal = new LongAdder();
+
+    // 以下字段只在日志线程中访问
+    private final Map<String, LogFile> openFiles = new HashMap<>();
+    private final LogFile console = new LogFile(Channels.newChannel(System.out));
+    private final CharsetEncoder consoleEncoder = Charset.defaultCharset().newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final LogFormatter formatter = new LogFormatter();
+    private BinaryLogSink binarySink;
+    private boolean binarySinkFailed;
+    private String currentDate;
+    private long nextDayStart;
+    private long lastFlushTime;
+    private long pendingBytes;
+
+    private final AtomicLong linesWritten = new AtomicLong(0);
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong flushCount = new AtomicLong(0);
+    private volatile long writerAllocatedBytes = -1;
+    private final AtomicLong binaryBytesWritten = new AtomicLong(0);
+
+    private static final int DEFAULT_LOG_BUFFER_SIZE = 1000; // 每个来源保留的历史日志条数
+    // 只由日志线程写入，写满后覆盖最旧的日志
+    private final Map<String, HistoryBuffer<LogEntry>> logBuffers = new ConcurrentHashMap<>();
+    // 按来源索引的监听器，由日志线程按批次异步投递
+    private final Map<String, List<ListenerRegistration>> listeners = new ConcurrentHashMap<>();
+    private static final String ALL_SOURCES = "*";
+
+    public interface LogListener {
+        void onNewLog(String source, String message, LogLevel level, Date timestamp);
+
+        // 一批同来源(或订阅全部来源时的所有)日志，默认逐条转发
+        default void onNewLogs(List<LogEntry> entries) {
+            for (LogEntry entry : entries) {
+                onNewLog(entry.getSource(), entry.getMessage(), entry.getLevel(), new Date(entry.getTimestamp()));
+            }
+        }
+    }
+
+    public static final class ListenerRegistration {
+        private final String source;
+        private final Executor executor;
+        private final LogListener listener;
+
+        private ListenerRegistration(String source, Executor executor, LogListener listener) {
+            this.source = source;
+            this.executor = executor;
+            this.listener = listener;
+        }
+    }
+
+    // 只接收指定来源的日志，回调在executor中执行
+    public ListenerRegistration addListener(String source, Executor executor, LogListener listener) {
+        ListenerRegistration registration = new ListenerRegistration(source, executor, listener);
+        listeners.computeIfAbsent(source, k -> new CopyOnWriteArrayList<>()).add(registration);
+        return registration;
+    }
+
+    // 接收所有来源的日志，回调直接在日志线程中执行
+    public ListenerRegistration addListener(LogListener listener) {
+        return addListener(ALL_SOURCES, Runnable::run, listener);
+    }
+
+    public void removeListener(ListenerRegistration registration) {
+        if (registration == null) {
+            return;
+        }
+        List<ListenerRegistration> list = listeners.get(registration.source);
+        if (list != null) {
+            list.remove(registration);
+        }
+    }
+
+    public void removeListener(LogListener listener) {
+        for (List<ListenerRegistration> list : listeners.values()) {
+            list.removeIf(registration -> registration.listener == listener);
+        }
+    }
+
+    // 调用方只负责入队，格式化、写文件和通知监听器都在日志线程中完成
+    public void log(String source, String message, LogLevel level) {
+        enqueue(new LogEntry(source, message, null, null, level, sequence.incrementAndGet()));
+    }
+
+    // 模板日志：{}占位符在需要文本时才替换，调用方不做字符串格式化
+    public void log(String source, LogLevel level, String template, Object... args) {
+        enqueue(new LogEntry(source, null, template, args, level, sequence.incrementAndGet()));
+    }
+
+    private void enqueue(LogEntry entry) {
+        switch (overflowPolicies[entry.level.ordinal()]) {
+            case BLOCK:
+                while (!losslessQueue.offer(entry)) {
+                    if (!running) {
+                        recordDrop(entry);
+                        return;
+                    }
+                    wakeWriter();
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!evictingQueue.offer(entry)) {
+                    LogEntry evicted = evictingQueue.poll();
+                    if (evicted != null) {
+                        recordDrop(evicted);
+                    }
+                }
+                break;
+            case SAMPLE:
+                // 队列过半后每sampleRate条只保留一条
+                if (lossyQueue.size() >= lossyQueue.capacity() / 2
+                        && sampleCounter.incrementAndGet() % sampleRate != 0) {
+                    recordDrop(entry);
+                    return;
+                }
+                if (!lossyQueue.offer(entry)) {
+                    recordDrop(entry);
+                    return;
+                }
+                break;
+            default:
+                if (!lossyQueue.offer(entry)) {
+                    recordDrop(entry);
+                    return;
+                }
+                break;
+        }
+        wakeWriter();
+    }
+
+    private void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(loggerThread);
+        }
+    }
+
+    private static String sourceOf(LogEntry entry) {
+        return entry.productName == null ? "unknown" : entry.productName;
+    }
+
+    private void recordDrop(LogEntry entry) {
+        String source = sourceOf(entry);
+        droppedBySource.computeIfAbsent(source, k -> new LongAdder()).increment();
+        droppedTotal.increment();
+    }
+
+    public void setOverflowPolicy(LogLevel level, OverflowPolicy policy) {
+        OverflowPolicy[] updated = overflowPolicies.clone();
+        updated[level.ordinal()] = policy;
+        overflowPolicies = updated;
+    }
+
+    // 单个文件超过maxFileBytes时轮转；已轮转的分段总大小超过maxTotalBytes或超过保留天数时删除最旧的
+    public void setRotationLimits(long maxFileBytes, long maxTotalBytes, int retentionDays) {
+        this.maxFileBytes = Math.max(1024 * 1024, maxFileBytes);
+        archiver.setLimits(maxTotalBytes, Math.max(1, retentionDays));
+    }
+
+    public void setSinkMode(SinkMode sinkMode) {
+        this.sinkMode = sinkMode;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public long getDroppedCount(String source) {
+        LongAdder counter = droppedBySource.get(source);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    public Map<String, Long> getDroppedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        droppedBySource.forEach((source, counter) -> counts.put(source, counter.sum()));
+        return counts;
+    }
+
+    // 获取指定来源最近的历史日志，按产生顺序排列
+    public List<LogEntry> getHistoryLogs(String source) {
+        HistoryBuffer<LogEntry> buffer = logBuffers.get(source);
+        return buffer != null ? buffer.snapshot() : new ArrayList<>();
+    }
+
+    private Logger() {
+        this.losslessQueue = new RingBufferQueue<>(QUEUE_CAPACITY);
+        this.evictingQueue = new RingBufferQueue<>(QUEUE_CAPACITY);
+        this.lossyQueue = new RingBufferQueue<>(QUEUE_CAPACITY);
+        this.running = true;
+        createLogDirectory();
+        this.archiver = new LogArchiver(Paths.get(LOG_DIR), DEFAULT_MAX_TOTAL_BYTES, DEFAULT_RETENTION_DAYS);
+
+        // 目录和归档器就绪后才启动日志线程，最早的日志刷盘或轮转时不会遇到未初始化的字段
+        this.loggerThread = new Thread(this::processLogQueue, "Logger");
+        this.loggerThread.setDaemon(true);
+        this.loggerThread.start();
+    }
+
+    public static Logger getInstance() {
+        if (instance == null) {
+            synchronized (Logger.class) {
+                if (instance == null) {
+                    instance = new Logger();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void createLogDirectory() {
+        try {
+            Files.createDirectories(Paths.get(LOG_DIR));
+        } catch (IOException e) {
+            System.err.println("无法创建日志目录: " + e.getMessage());
+        }
+    }
+
+    public void log(String productName, String message) {
+        log(productName, message, LogLevel.INFO);
+    }
+
+    // 日志线程批量取出队列中的日志，写入常驻的文件通道，按大小或时间统一刷盘
+    private void processLogQueue() {
+        List<LogEntry> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        lastFlushTime = System.currentTimeMillis();
+        while (running || !isQueueEmpty()) {
+            if (drainQueues(batch) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            } else {
+                writerParked = true;
+                if (running && isQueueEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+                }
+                writerParked = false;
+            }
+            flushIfDue();
+        }
+        closeAll();
+    }
+
+    // 多个队列都有日志时按序号合并排序，保持日志的产生顺序
+    private int drainQueues(List<LogEntry> batch) {
+        int lossless = losslessQueue.drainTo(batch, MAX_BATCH_SIZE);
+        int evicting = evictingQueue.drainTo(batch, MAX_BATCH_SIZE);
+        int lossy = lossyQueue.drainTo(batch, MAX_BATCH_SIZE);
+        int total = lossless + evicting + lossy;
+        if (lossless != total && evicting != total && lossy != total) {
+            batch.sort(BY_SEQUENCE);
+        }
+        return total;
+    }
+
+    private boolean isQueueEmpty() {
+        return losslessQueue.isEmpty() && evictingQueue.isEmpty() && lossyQueue.isEmpty();
+    }
+
+    private void writeBatch(List<LogEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        SinkMode mode = sinkMode;
+        for (LogEntry entry : batch) {
+            rollDateIfNeeded(entry.timestamp);
+            logBuffers.computeIfAbsent(sourceOf(entry), k -> new HistoryBuffer<>(DEFAULT_LOG_BUFFER_SIZE))
+                    .add(entry);
+            if (mode != SinkMode.BINARY) {
+                writeText(entry);
+            }
+            if (mode != SinkMode.TEXT) {
+                writeBinary(entry);
+            }
+        }
+        console.flush();
+        notifyListeners(batch);
+
+        linesWritten.addAndGet(batch.size());
+        batchCount.incrementAndGet();
+        writerAllocatedBytes = currentThreadAllocatedBytes();
+    }
+
+    private void writeText(LogEntry entry) {
+        formatter.format(entry.timestamp, entry.level, entry.message, entry.template, entry.args);
+        CharBuffer chars = formatter.chars();
+        LogFile file = getLogFile(entry.productName);
+        if (file != null) {
+            file.markLine(entry.timestamp);
+            pendingBytes += file.append(chars, formatter.encoder());
+            if (file.size() >= maxFileBytes) {
+                rotate(sourceOf(entry), file);
+            }
+        }
+        // 同时输出到控制台，按控制台的默认字符集编码
+        chars.rewind();
+        console.append(chars, consoleEncoder);
+    }
+
+    private void rotate(String source, LogFile file) {
+        file.flush();
+        file.close();
+        openFiles.remove(source);
+        try {
+            archiver.rotate(file.path, sanitizeFileName(source), currentDate);
+        } catch (IOException e) {
+            System.err.println("轮转日志失败: " + e.getMessage());
+        }
+    }
+
+    // 二进制日志不做文本格式化，模板和参数原样写入
+    private void writeBinary(LogEntry entry) {
+        if (binarySinkFailed) {
+            return;
+        }
+        try {
+            if (binarySink == null) {
+                binarySink = new BinaryLogSink(Paths.get(BINARY_LOG_DIR), currentDate);
+            }
+            binaryBytesWritten.addAndGet(binarySink.write(sourceOf(entry), entry.level, entry.timestamp,
+                    entry.message, entry.template, entry.args));
+        } catch (IOException e) {
+            System.err.println("写入二进制日志失败: " + e.getMessage());
+            if (binarySink == null) {
+                // 无法创建文件时不再重试，直到下次跨天
+                binarySinkFailed = true;
+            }
+        }
+    }
+
+    // 按来源分组后每个订阅者每批只投递一次
+    private void notifyListeners(List<LogEntry> batch) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Map<String, List<LogEntry>> bySource = null;
+        for (LogEntry entry : batch) {
+            String source = sourceOf(entry);
+            if (hasListeners(source)) {
+                if (bySource == null) {
+                    bySource = new HashMap<>();
+                }
+                bySource.computeIfAbsent(source, k -> new ArrayList<>()).add(entry);
+            }
+        }
+        if (bySource != null) {
+            bySource.forEach((source, entries) -> deliver(listeners.get(source), entries));
+        }
+        if (hasListeners(ALL_SOURCES)) {
+            deliver(listeners.get(ALL_SOURCES), batch);
+        }
+    }
+
+    private boolean hasListeners(String source) {
+        List<ListenerRegistration> list = listeners.get(source);
+        return list != null && !list.isEmpty();
+    }
+
+    private void deliver(List<ListenerRegistration> targets, List<LogEntry> entries) {
+        List<LogEntry> snapshot = List.copyOf(entries);
+        for (ListenerRegistration registration : targets) {
+            registration.executor.execute(() -> {
+                try {
+                    registration.listener.onNewLogs(snapshot);
+                } catch (Exception e) {
+                    System.err.println("日志监听器处理失败: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private void flushIfDue() {
+        long now = System.currentTimeMillis();
+        if (pendingBytes >= FLUSH_THRESHOLD_BYTES || (pendingBytes > 0 && now - lastFlushTime >= FLUSH_INTERVAL_MS)) {
+            flushAll();
+            lastFlushTime = now;
+        }
+    }
+
+    private void flushAll() {
+        for (LogFile file : openFiles.values()) {
+            file.flush();
+        }
+        pendingBytes = 0;
+        flushCount.incrementAndGet();
+    }
+
+    private void closeAll() {
+        flushAll();
+        for (LogFile file : openFiles.values()) {
+            file.close();
+        }
+        openFiles.clear();
+        if (binarySink != null) {
+            binarySink.close();
+            binarySink = null;
+        }
+        binarySinkFailed = false;
+    }
+
+    // 按日志时间切换日期，跨天时关闭旧文件
+    private void rollDateIfNeeded(long timestamp) {
+        if (currentDate != null && timestamp < nextDayStart) {
+            return;
+        }
+        // 前一天的文件不再写入，交给后台压缩
+        List<Path> finished = new ArrayList<>();
+        for (LogFile file : openFiles.values()) {
+            finished.add(file.path);
+        }
+        closeAll();
+        finished.forEach(archiver::archive);
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+        currentDate = date.toString();
+        nextDayStart = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private LogFile getLogFile(String productName) {
+        String source = productName == null ? "unknown" : productName;
+        LogFile file = openFiles.get(source);
+        if (file == null) {
+            try {
+                file = new LogFile(Paths.get(getLogFileName(source)));
+                openFiles.put(source, file);
+            } catch (IOException e) {
+                System.err.println("写入日志失败: " + e.getMessage());
+                return null;
+            }
+        }
+        return file;
+    }
+
+    private String getLogFileName(String productName) {
+        String safeProductName = sanitizeFileName(productName);
+        return String.format("%s/%s_%s.log",
+                LOG_DIR,
+                safeProductName,
+                currentDate);
+    }
+
+    // 规则标识可能带很长的触发条件，超长时截断并附加哈希，保证文件名合法且互不冲突
+    private static Charset fileNameCharset() {
+        try {
+            return Charset.forName(System.getProperty("sun.jnu.encoding", Charset.defaultCharset().name()));
+        } catch (RuntimeException e) {
+            return Charset.defaultCharset();
+        }
+    }
+
+    static String sanitizeFileName(String fileName) {
+        if (fileName == null) {
+            return "unknown";
+        }
+        String safe = fileName.replaceAll("[\\\\/:*?\"<>|]", "_");
+        if (safe.length() > MAX_FILE_NAME_CHARS) {
+            safe = safe.substring(0, MAX_FILE_NAME_CHARS) + "_" + Integer.toHexString(fileName.hashCode());
+        }
+        // 文件系统编码无法表示的名称（如非UTF-8环境下的中文）退回纯ASCII名称，避免日志线程因InvalidPathException退出
+        if (!FILE_NAME_CHARSET.newEncoder().canEncode(safe)) {
+            safe = "rule_" + Integer.toHexString(fileName.hashCode());
+        }
+        return safe;
+    }
+
+    // 立即按保留天数和磁盘预算清理已轮转的日志
+    public void cleanOldLogs() {
+        archiver.cleanUp();
+    }
+
+    // 按条件查询磁盘上的文本日志，结果按文件顺序惰性读取，使用完需关闭Stream。
+    // 最近一个刷盘周期内的日志可能还未写入文件
+    public Stream<LogEntry> query(LogQuery query) {
+        return new LogSearcher(Paths.get(LOG_DIR)).search(query);
+    }
+
+    public String getStatistics() {
+        long lines = linesWritten.get();
+        long allocated = writerAllocatedBytes;
+        String allocation = allocated >= 0 && lines > 0 ? (allocated / lines) + "字节/行" : "未知";
+        return String.format("日志统计: 写入%d行, 批次%d, 刷盘%d次, 待写入%d条, 丢弃%d条, 日志线程分配%s, 输出%s, 二进制%d字节, 归档%d个/%dMB %s",
+                lines, batchCount.get(), flushCount.get(),
+                losslessQueue.size() + evictingQueue.size() + lossyQueue.size(), droppedTotal.sum(), allocation,
+                sinkMode, binaryBytesWritten.get(), archiver.getArchivedCount(),
+                archiver.getTotalBytes() / (1024 * 1024), getDroppedCounts());
+    }
+
+    public void shutdown() {
+        // 不中断日志线程，避免中断关闭正在写入的文件通道；线程最多等待一个刷盘周期后退出
+        running = false;
+        LockSupport.unpark(loggerThread);
+        try {
+            loggerThread.join(5000); // 等待最多5秒
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 日志文件及其稀疏时间索引: 每INDEX_INTERVAL行在.idx文件中记录一次(时间戳, 行起始偏移)
+    private static class LogFile {
+        private final Path path;
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final FileChannel index;
+        private final ByteBuffer indexBuffer;
+        private long position;
+        private int linesSinceIndex;
+
+        LogFile(Path path) throws IOException {
+            this(path, FileChannel.open(path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND),
+                    FileChannel.open(LogSearcher.indexPathOf(path),
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.APPEND));
+        }
+
+        LogFile(WritableByteChannel channel) {
+            this(null, channel, null);
+        }
+
+        private LogFile(Path path, WritableByteChannel channel, FileChannel index) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(FILE_BUFFER_SIZE);
+            this.index = index;
+            this.indexBuffer = index != null ? ByteBuffer.allocate(LogSearcher.INDEX_ENTRY_SIZE * 64) : null;
+            try {
+                this.position = channel instanceof FileChannel ? ((FileChannel) channel).size() : 0;
+            } catch (IOException e) {
+                this.position = 0;
+            }
+        }
+
+        // 包括尚未写出的缓冲内容
+        long size() {
+            return position + buffer.position();
+        }
+
+        // 在写入一行之前调用，按间隔记录索引
+        void markLine(long timestamp) {
+            if (index == null) {
+                return;
+            }
+            if (linesSinceIndex == 0) {
+                if (!indexBuffer.hasRemaining()) {
+                    flushIndex();
+                }
+                indexBuffer.putLong(timestamp).putLong(position + buffer.position());
+            }
+            linesSinceIndex = (linesSinceIndex + 1) % LogSearcher.INDEX_INTERVAL;
+        }
+
+        // 直接编码进写缓冲，缓冲写满时先落盘再继续编码，返回写入的字节数
+        int append(CharBuffer chars, CharsetEncoder encoder) {
+            int written = 0;
+            encoder.reset();
+            while (true) {
+                int start = buffer.position();
+                CoderResult result = encoder.encode(chars, buffer, true);
+                written += buffer.position() - start;
+                if (!result.isOverflow()) {
+                    break;
+                }
+                flush();
+            }
+            encoder.flush(buffer);
+            return written;
+        }
+
+        // 先写日志内容再写索引，索引指向的偏移总是已经写出
+        void flush() {
+            if (buffer.position() > 0) {
+                buffer.flip();
+                position += buffer.remaining();
+                writeFully(channel, buffer);
+                buffer.clear();
+            }
+            flushIndex();
+        }
+
+        private void flushIndex() {
+            if (index == null || indexBuffer.position() == 0) {
+                return;
+            }
+            indexBuffer.flip();
+            writeFully(index, indexBuffer);
+            indexBuffer.clear();
+        }
+
+        private static void writeFully(WritableByteChannel target, ByteBuffer data) {
+            try {
+                while (data.hasRemaining()) {
+                    target.write(data);
+                }
+            } catch (IOException e) {
+                System.err.println("写入日志失败: " + e.getMessage());
+                data.position(data.limit());
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+                if (index != null) {
+                    index.close();
+                }
+            } catch (IOException e) {
+                System.err.println("关闭日志文件失败: " + e.getMessage());
+            }
+        }
+    }
+
+    public static class LogEntry {
+        final String productName;
+        final String template;
+        final Object[] args;
+        final LogLevel level;
+        final long timestamp;
+        final long sequence;
+        volatile String message;
+
+        LogEntry(String productName, String message, String template, Object[] args,
+                 LogLevel level, long sequence) {
+            this.sequence = sequence;
+            this.productName = productName;
+            this.message = message;
+            this.template = template;
+            this.args = args;
+            this.level = level;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        // 从磁盘日志中读出的记录
+        LogEntry(String productName, String message, LogLevel level, long timestamp) {
+            this.sequence = -1;
+            this.productName = productName;
+            this.message = message;
+            this.template = null;
+            this.args = null;
+            this.level = level;
+            this.timestamp = timestamp;
+        }
+
+        public String getSource() {
+            return productName;
+        }
+
+        public LogLevel getLevel() {
+            return level;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        // 进程内单调递增；从磁盘读出的记录为-1
+        public long getSequence() {
+            return sequence;
+        }
+
+        // 模板日志只在需要文本时才渲染，结果缓存
+        public String getMessage() {
+            String rendered = message;
+            if (rendered == null) {
+                rendered = LogFormatter.render(new StringBuilder(), template, args).toString();
+                message = rendered;
+            }
+            return rendered;
+        }
+    }
+
+    // 日志输出方式
+    public enum SinkMode {
+        TEXT,   // 按日期和来源写文本日志并输出到控制台
+        BINARY, // 只写二进制日志，用BinaryLogDecoder查看
+        BOTH
+    }
+
+    // 队列满时的处理方式
+    public enum OverflowPolicy {
+        BLOCK,       // 等待队列有空位，不丢日志
+        DROP,        // 丢弃新日志
+        DROP_OLDEST, // 丢弃队列中最旧的可丢弃日志
+        SAMPLE       // 队列过半后按比例采样
+    }
+
+    public enum LogLevel {
+        DEBUG("调试"),
+        INFO("信息"),
+        WARN("警告"),
+        ERROR("错误");
+
+        private final String description;
+
+        LogLevel(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+// 基于开放寻址的long集合，不装箱、不删除单个元素，适合记录已出现过的ID
+public class LongHashSet {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final long[] keys;
+    private final int mask;
+    private final int maxSize;
+    private boolean containsZero;
+    private int size;
+
+    public LongHashSet(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("集合容量必须大于0");
+        }
+        int capacity = Integer.highestOneBit((int) Math.ceil(maxSize / LOAD_FACTOR) - 1) << 1;
+        this.keys = new long[Math.max(capacity, 2)];
+        this.mask = keys.length - 1;
+        this.maxSize = maxSize;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    // 返回是否为新元素，集合已满时不再添加并返回false
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero || isFull()) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        if (isFull()) {
+            return false;
+        }
+        keys[index] = key;
+        size++;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        containsZero = false;
+        size = 0;
+    }
+
+    public boolean isFull() {
+        return size >= maxSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.util;
+
+// 对数分桶的分位数摘要：第i个桶覆盖(gamma^(i-1), gamma^i]，任意分位数的相对误差不超过relativeAccuracy。
+// 每次写入O(1)；桶数组只覆盖出现过的价格区间，超过上限时把最低的桶合并，内存有上界。
+// 相同精度的摘要可以直接相加合并。非线程安全，由调用方同步
+public class QuantileSketch {
+    private static final int INITIAL_BUCKETS = 32;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBuckets;
+    private long[] counts;
+    // counts[0]对应的桶序号
+    private int offset;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1) || maxBuckets <= 0) {
+            throw new IllegalArgumentException("精度须在0到1之间，桶数必须大于0");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBuckets = maxBuckets;
+    }
+
+    // 小于等于0的值单独计数，按0处理
+    public void add(double value) {
+        if (value > 0) {
+            addToBucket((int) Math.ceil(Math.log(value) / logGamma), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("精度不同的摘要不能合并");
+        }
+        if (other.counts != null) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    addToBucket(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    // q在[0, 1]之间；没有数据时返回NaN
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (Math.max(0, Math.min(1, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, offset + counts.length - 1) / (gamma + 1);
+    }
+
+    public long getCount() { return count; }
+    public double getRelativeAccuracy() { return relativeAccuracy; }
+    public int getBucketCount() { return counts == null ? 0 : counts.length; }
+
+    private void addToBucket(int index, long n) {
+        if (counts == null) {
+            counts = new long[Math.min(INITIAL_BUCKETS, maxBuckets)];
+            offset = index - counts.length / 2;
+        }
+        // 桶数已到上限时，更低的值直接计入最低的桶，不再重新分配
+        if (index >= offset + counts.length || (index < offset && counts.length < maxBuckets)) {
+            resize(index);
+        }
+        // 低于保留范围的值已被合并到最低的桶
+        counts[Math.max(index, offset) - offset] += n;
+    }
+
+    // 按需成倍扩展；超过上限时保留最高的maxBuckets个桶
+    private void resize(int index) {
+        int low = Math.min(offset, index);
+        int high = Math.max(offset + counts.length - 1, index);
+        int needed = high - low + 1;
+        int length = Math.min(maxBuckets, Math.max(needed, counts.length * 2));
+        int newOffset = needed >= length ? high - length + 1 : low - (length - needed) / 2;
+        long[] resized = new long[length];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                resized[Math.max(offset + i, newOffset) - newOffset] += counts[i];
+            }
+        }
+        counts = resized;
+        offset = newOffset;
+    }
+}
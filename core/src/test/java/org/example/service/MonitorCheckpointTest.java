@@ -0,0 +1,90 @@
+package org.example.service;
+
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MonitorCheckpointTest {
+
+    private static ProductMonitor monitor(WatchDefinition watch) {
+        ProductMonitor monitor = new ProductMonitor(watch);
+        monitor.applyMode(watch.getMode(), watch.getAccount());
+        monitor.setTrigger(watch.getTrigger());
+        return monitor;
+    }
+
+    @Test
+    public void roundTripsDefinitionsAndState() {
+        ProductMonitor buy = monitor(new WatchDefinition("商品A", 12.5, WatchMode.BUY_CONTINUOUS,
+                "13800000000", "price <= target && drop(20) >= 5"));
+        buy.getProduct().restore(11.8, 1001L, 2002L, 1_700_000_000_000L);
+        buy.restoreStatistics(40, 3, 25, 60_000, false);
+        ProductMonitor watch = monitor(new WatchDefinition("商品B", 8, WatchMode.MONITOR));
+        watch.restoreStatistics(5, 0, 1, 1000, true);
+
+        List<MonitorCheckpoint.Entry> entries = MonitorCheckpoint.decode(MonitorCheckpoint.encode(List.of(buy, watch)));
+
+        assertEquals(2, entries.size());
+        MonitorCheckpoint.Entry first = entries.get(0);
+        WatchDefinition definition = first.getDefinition();
+        assertEquals("商品A", definition.getName());
+        assertEquals(12.5, definition.getTargetPrice(), 0);
+        assertEquals(WatchMode.BUY_CONTINUOUS, definition.getMode());
+        assertEquals("13800000000", definition.getAccount());
+        assertEquals("price <= target && drop(20) >= 5", definition.getTrigger());
+        // 恢复时按规则标识匹配监控清单
+        assertEquals(buy.getKey(), definition.getKey());
+        assertEquals(11.8, first.getCurrentPrice(), 0);
+        assertEquals(40, first.getCheckCount());
+        assertFalse(first.isStopped());
+
+        MonitorCheckpoint.Entry second = entries.get(1);
+        assertEquals(WatchMode.MONITOR, second.getDefinition().getMode());
+        assertNull(second.getDefinition().getAccount());
+        assertNull(second.getDefinition().getTrigger());
+        assertTrue(second.isStopped());
+    }
+
+    @Test
+    public void restoresStateIntoNewMonitor() {
+        ProductMonitor original = monitor(new WatchDefinition("商品C", 20, WatchMode.BUY_ONCE));
+        original.getProduct().restore(19.5, 7L, 8L, 1_700_000_000_000L);
+        original.restoreStatistics(12, 2, 4, 5000, false);
+
+        MonitorCheckpoint.Entry entry = MonitorCheckpoint.decode(MonitorCheckpoint.encode(List.of(original))).get(0);
+        ProductMonitor restored = monitor(entry.getDefinition());
+        entry.applyTo(restored);
+
+        assertEquals(19.5, restored.getProduct().getCurrentPrice(), 0);
+        assertEquals(7L, restored.getProduct().getMinPriceGoodsId());
+        assertEquals(12, restored.getCheckCount());
+        assertEquals(2, restored.getErrorCount());
+        assertEquals(4, restored.getSkippedCount());
+        assertEquals(5000, restored.getRunningTime());
+    }
+
+    @Test
+    public void emptyCheckpointRoundTrips() {
+        assertTrue(MonitorCheckpoint.decode(MonitorCheckpoint.encode(List.of())).isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsCorruptedBody() {
+        ByteBuffer buffer = MonitorCheckpoint.encode(List.of(monitor(new WatchDefinition("商品D", 3, WatchMode.MONITOR))));
+        buffer.array()[30] ^= 0x40;
+        MonitorCheckpoint.decode(buffer);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsTruncatedFile() {
+        MonitorCheckpoint.decode(ByteBuffer.wrap(new byte[10]));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NewListingDetectorTest {
+
+    @Test
+    public void firstScanOnlyBuildsBaseline() {
+        NewListingDetector detector = new NewListingDetector(16);
+        assertFalse(detector.offer(1));
+        assertFalse(detector.offer(2));
+        detector.markPrimed();
+        assertFalse(detector.offer(1));
+        assertTrue(detector.offer(3));
+        assertFalse(detector.offer(3));
+        assertEquals(1, detector.getNewListingCount());
+    }
+
+    // 当前代写满后轮换：上一代的ID仍然算见过，再早一代的被淘汰
+    @Test
+    public void rotationKeepsOnlyPreviousGeneration() {
+        NewListingDetector detector = new NewListingDetector(2);
+        detector.offer(1);
+        detector.offer(2);
+        detector.markPrimed();
+        // 当前代已满，写入3时轮换，{1, 2}成为上一代
+        assertTrue(detector.offer(3));
+        assertEquals(3, detector.getTrackedCount());
+        assertTrue(detector.offer(4));
+        // 再次轮换，{3, 4}成为上一代，{1, 2}被淘汰
+        assertTrue(detector.offer(5));
+        assertFalse(detector.offer(3));
+        assertTrue(detector.offer(1));
+        assertEquals(4, detector.getNewListingCount());
+    }
+
+    @Test
+    public void resetStartsOverWithNewBaseline() {
+        NewListingDetector detector = new NewListingDetector(8);
+        detector.offer(1);
+        detector.markPrimed();
+        assertTrue(detector.offer(2));
+        detector.reset();
+        assertEquals(0, detector.getNewListingCount());
+        assertFalse(detector.offer(5));
+        detector.markPrimed();
+        assertFalse(detector.offer(5));
+        assertTrue(detector.offer(1));
+    }
+}
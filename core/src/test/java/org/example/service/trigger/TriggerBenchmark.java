@@ -0,0 +1,81 @@
+package org.example.service.trigger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+// 触发规则求值基准：大量规则各自按同一价格序列逐次求值，输出每次求值的耗时和分配的内存
+// 只在测试源码中，不打进发布包。用法: mvn -pl core test-compile 后
+// java -cp core/target/classes:core/target/test-classes org.example.service.trigger.TriggerBenchmark [规则数] [价格次数]
+public class TriggerBenchmark {
+    private static final String[] EXPRESSIONS = {
+            PriceTrigger.DEFAULT_EXPRESSION,
+            "price <= target && drop(20) >= 5",
+            "pct(10, 50) && time(09:30-23:00)",
+            "confirm(3, price <= target || drop(10) >= 8)",
+            "(price < 12.5 || pct(5, 100)) && !time(02:00-06:00) && confirm(2, drop(30) >= 3)",
+    };
+
+    public static void main(String[] args) {
+        int rules = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        PriceTrigger[] triggers = new PriceTrigger[rules];
+        double[] targets = new double[rules];
+        for (int i = 0; i < rules; i++) {
+            triggers[i] = PriceTrigger.compile(EXPRESSIONS[i % EXPRESSIONS.length]);
+            targets[i] = 9 + (i % 7) * 0.5;
+        }
+        // 价格序列预先生成，循环中不产生额外分配
+        Random random = new Random(42);
+        double[] prices = new double[ticks];
+        double price = 12;
+        for (int i = 0; i < ticks; i++) {
+            price = Math.max(1, price + random.nextGaussian() * 0.3);
+            prices[i] = price;
+        }
+        long start = System.currentTimeMillis();
+        long[] times = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            times[i] = start + i * 60_000L;
+        }
+
+        // 预热后清零，只统计第二轮
+        run(triggers, targets, prices, times);
+        for (int i = 0; i < rules; i++) {
+            triggers[i] = PriceTrigger.compile(EXPRESSIONS[i % EXPRESSIONS.length]);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocatedBytes(threads);
+        long begin = System.nanoTime();
+        long fired = run(triggers, targets, prices, times);
+        long elapsed = System.nanoTime() - begin;
+        long allocated = allocatedBytes(threads) - allocatedBefore;
+
+        long evaluations = (long) rules * ticks;
+        System.out.printf("规则: %d个, 价格: %d次, 求值: %d次, 满足: %d次%n", rules, ticks, evaluations, fired);
+        System.out.printf("总耗时: %.1f毫秒, 每次求值: %.1f纳秒, 每次价格(全部规则): %.1f微秒%n",
+                elapsed / 1e6, (double) elapsed / evaluations, elapsed / 1e3 / ticks);
+        System.out.printf("求值期间分配: %s%n", allocated < 0 ? "不支持统计" : allocated + "字节");
+    }
+
+    private static long run(PriceTrigger[] triggers, double[] targets, double[] prices, long[] times) {
+        long fired = 0;
+        for (int t = 0; t < prices.length; t++) {
+            for (int i = 0; i < triggers.length; i++) {
+                if (triggers[i].evaluate(prices[t], targets[i], times[t])) {
+                    fired++;
+                }
+            }
+        }
+        return fired;
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryBufferTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveCapacity() {
+        new HistoryBuffer<Integer>(0);
+    }
+
+    @Test
+    public void snapshotBeforeFullKeepsInsertionOrder() {
+        HistoryBuffer<Integer> buffer = new HistoryBuffer<>(5);
+        assertTrue(buffer.snapshot().isEmpty());
+        buffer.add(1);
+        buffer.add(2);
+        buffer.add(3);
+        assertEquals(List.of(1, 2, 3), buffer.snapshot());
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    public void overwritesOldestAfterWraparound() {
+        HistoryBuffer<Integer> buffer = new HistoryBuffer<>(3);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i);
+        }
+        assertEquals(List.of(7, 8, 9), buffer.snapshot());
+        assertEquals(3, buffer.size());
+        assertEquals(3, buffer.capacity());
+    }
+
+    @Test
+    public void everyPositionOfWraparoundIsConsistent() {
+        HistoryBuffer<Integer> buffer = new HistoryBuffer<>(4);
+        for (int i = 0; i < 50; i++) {
+            buffer.add(i);
+            List<Integer> snapshot = buffer.snapshot();
+            int first = Math.max(0, i - 3);
+            assertEquals(i - first + 1, snapshot.size());
+            for (int j = 0; j < snapshot.size(); j++) {
+                assertEquals(Integer.valueOf(first + j), snapshot.get(j));
+            }
+        }
+    }
+
+    // 读取与单个写线程并发：快照总是连续递增，不包含被覆盖的旧元素
+    @Test
+    public void concurrentSnapshotsAreContiguous() throws Exception {
+        HistoryBuffer<Integer> buffer = new HistoryBuffer<>(16);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                buffer.add(i);
+            }
+            done.set(true);
+        });
+        AtomicReference<String> failure = new AtomicReference<>();
+        writer.start();
+        while (!done.get()) {
+            List<Integer> snapshot = buffer.snapshot();
+            if (snapshot.size() > buffer.capacity()) {
+                failure.set("快照超过容量: " + snapshot.size());
+                break;
+            }
+            for (int j = 1; j < snapshot.size(); j++) {
+                if (snapshot.get(j) != snapshot.get(j - 1) + 1) {
+                    failure.set("快照不连续: " + snapshot);
+                    break;
+                }
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(Integer.valueOf(199_999), buffer.snapshot().get(15));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void addReportsNewElementsOnlyOnce() {
+        LongHashSet set = new LongHashSet(8);
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+        assertEquals(1, set.size());
+    }
+
+    // 0是空槽位的标记，单独保存
+    @Test
+    public void zeroAndNegativeKeysAreStored() {
+        LongHashSet set = new LongHashSet(4);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(-1));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-1));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(3, set.size());
+    }
+
+    // 按容量的倍数取键，在小表中大量落在同一探测链上
+    @Test
+    public void collidingKeysAreAllFound() {
+        LongHashSet set = new LongHashSet(1000);
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.add(i << 20));
+        }
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.contains(i << 20));
+        }
+        assertFalse(set.contains(1001L << 20));
+    }
+
+    @Test
+    public void stopsAddingWhenFull() {
+        LongHashSet set = new LongHashSet(3);
+        assertTrue(set.add(1));
+        assertTrue(set.add(2));
+        assertTrue(set.add(3));
+        assertTrue(set.isFull());
+        assertFalse(set.add(4));
+        assertFalse(set.add(0));
+        assertFalse(set.contains(4));
+        // 已有元素仍然返回false，而不是当作新元素
+        assertFalse(set.add(2));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    public void clearAllowsReuse() {
+        LongHashSet set = new LongHashSet(2);
+        set.add(0);
+        set.add(7);
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(7));
+        assertTrue(set.add(7));
+        assertTrue(set.add(8));
+        assertTrue(set.isFull());
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    public void emptySketchReturnsNaN() {
+        assertTrue(Double.isNaN(new QuantileSketch(ACCURACY, 64).quantile(0.5)));
+    }
+
+    @Test
+    public void quantilesStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, 2048);
+        for (int i = 1; i <= 10_000; i++) {
+            sketch.add(i);
+        }
+        for (double q : new double[]{0, 0.1, 0.5, 0.9, 0.99, 1}) {
+            double exact = 1 + Math.floor(q * 9_999);
+            assertEquals("q=" + q, exact, sketch.quantile(q), exact * ACCURACY);
+        }
+        assertEquals(10_000, sketch.getCount());
+    }
+
+    @Test
+    public void nonPositiveValuesCountAsZero() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, 64);
+        sketch.add(0);
+        sketch.add(-5);
+        sketch.add(10);
+        assertEquals(0, sketch.quantile(0), 0);
+        assertEquals(0, sketch.quantile(0.5), 0);
+        assertEquals(10, sketch.quantile(1), 10 * ACCURACY);
+    }
+
+    // 桶数到达上限后，更低的值并入最低的桶；高端的分位数不受影响，总数不变
+    @Test
+    public void collapsesLowestBucketsAtCapacity() {
+        int maxBuckets = 16;
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, maxBuckets);
+        // 先写入高价，再写入跨越很多个桶的低价，迫使resize保留最高的maxBuckets个桶
+        for (int i = 0; i < 100; i++) {
+            sketch.add(1000);
+        }
+        for (double value = 999; value > 1; value *= 0.9) {
+            sketch.add(value);
+        }
+        assertEquals(maxBuckets, sketch.getBucketCount());
+        long lowCount = sketch.getCount() - 100;
+        assertTrue(lowCount > maxBuckets);
+        // 最高价的桶保留，P100仍然准确
+        assertEquals(1000, sketch.quantile(1), 1000 * ACCURACY);
+        // 最低的值都并入了保留范围的最低桶，最小值被高估但不会低于原始最小值，也不会越界
+        double min = sketch.quantile(0);
+        assertTrue(min > 1);
+        assertTrue(min < 1000);
+        // 之后更低的值继续并入最低桶，不再扩容
+        sketch.add(0.001);
+        assertEquals(maxBuckets, sketch.getBucketCount());
+        assertEquals(min, sketch.quantile(0), 0);
+    }
+
+    // 先写入低价再写入高价时，向上扩容会丢弃最低的桶
+    @Test
+    public void growingUpwardsAtCapacityKeepsHighestBuckets() {
+        int maxBuckets = 8;
+        QuantileSketch sketch = new QuantileSketch(ACCURACY, maxBuckets);
+        sketch.add(1);
+        sketch.add(1_000_000);
+        assertEquals(maxBuckets, sketch.getBucketCount());
+        assertEquals(1_000_000, sketch.quantile(1), 1_000_000 * ACCURACY);
+        assertEquals(2, sketch.getCount());
+    }
+
+    @Test
+    public void mergeAddsBucketCounts() {
+        QuantileSketch left = new QuantileSketch(ACCURACY, 256);
+        QuantileSketch right = new QuantileSketch(ACCURACY, 256);
+        for (int i = 1; i <= 50; i++) {
+            left.add(i);
+            right.add(50 + i);
+        }
+        left.merge(right);
+        assertEquals(100, left.getCount());
+        assertEquals(50, left.quantile(0.5), 50 * ACCURACY);
+        assertEquals(100, left.quantile(1), 100 * ACCURACY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsDifferentAccuracy() {
+        new QuantileSketch(0.01, 64).merge(new QuantileSketch(0.02, 64));
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferQueueTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapacityThatIsNotPowerOfTwo() {
+        new RingBufferQueue<Integer>(6);
+    }
+
+    @Test
+    public void offerFailsWhenFullAndSucceedsAfterPoll() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(4));
+        assertFalse(queue.offer(5));
+    }
+
+    @Test
+    public void keepsFifoOrderAcrossManyWraparounds() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 1000; round++) {
+            while (queue.offer(next)) {
+                next++;
+            }
+            // 每轮只取走一部分，让读写位置在不同槽位上绕圈
+            for (int i = 0; i < 1 + round % 4; i++) {
+                assertEquals(Integer.valueOf(expected++), queue.poll());
+            }
+        }
+        Integer element;
+        while ((element = queue.poll()) != null) {
+            assertEquals(Integer.valueOf(expected++), element);
+        }
+        assertEquals(next, expected);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void pollOnEmptyReturnsNull() {
+        RingBufferQueue<String> queue = new RingBufferQueue<>(2);
+        assertNull(queue.poll());
+        queue.offer("a");
+        queue.poll();
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void drainToRespectsLimit() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(8);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, queue.drainTo(drained, 4));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertEquals(2, queue.drainTo(drained, 10));
+        assertEquals(6, drained.size());
+    }
+
+    // 溢出淘汰：生产者在队列满时自己取出最旧的元素再写入
+    @Test
+    public void producersCanEvictOldestWhenFull() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4);
+        for (int i = 0; i < 10; i++) {
+            while (!queue.offer(i)) {
+                queue.poll();
+            }
+        }
+        List<Integer> remaining = new ArrayList<>();
+        queue.drainTo(remaining, 10);
+        assertEquals(List.of(6, 7, 8, 9), remaining);
+    }
+
+    @Test
+    public void concurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Set<Integer> received = new HashSet<>();
+        int[] lastByProducer = new int[producers];
+        java.util.Arrays.fill(lastByProducer, -1);
+        start.countDown();
+        while (received.size() < producers * perProducer) {
+            Integer element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            assertTrue("重复的元素: " + element, received.add(element));
+            // 同一生产者写入的元素保持顺序
+            int producer = element / perProducer;
+            assertTrue(element > lastByProducer[producer]);
+            lastByProducer[producer] = element;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -1,7 +0,0 @@
-package org.example.ui;
-
-import org.example.model.Product;
-
-public interface ProductObserver {
-    void update(Product product, String message);
-}
\ No newline at end of file
@@ -3,13 +3,23 @@ package org.example.ui;
 import org.example.config.Config;
 import org.example.model.AddressItem;
 import org.example.model.ProductListItem;
+import org.example.model.WatchDefinition;
+import org.example.model.WatchMode;
 import org.example.service.*;
+import org.example.service.event.EventBus;
+import org.example.service.event.MonitorEvent;
+import org.example.service.session.AccountPool;
+import org.example.service.session.Session;
+import org.example.service.session.SessionManager;
 import org.example.service.strategy.BuyOperation;
 import org.example.service.strategy.PreOrderOperation;
 import org.example.util.Logger;
 
 import javax.swing.*;
 import java.awt.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,18 +27,19 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
-import javafx.application.Platform;
-import javafx.embed.swing.JFXPanel;
-import javafx.scene.Scene;
-import javafx.scene.web.WebView;
-import javafx.scene.layout.VBox;
-import javafx.concurrent.Worker;
 
 public class MainWindow extends JFrame {
     private static final Logger logger = Logger.getInstance();
     private final Config config = Config.getInstance();
     private final UserLogin userLogin = UserLogin.getInstance();
+    // 以规则键(名称|价格[|账号][|when:触发条件])为键，同一商品名称可以有多条规则
     private final Map<String, ProductMonitor> monitors = new ConcurrentHashMap<>();
+    // 每条规则最近一次选择的操作，随商品列表保存到监控清单，下次启动时恢复
+    private final Map<String, WatchMode> watchModes = new ConcurrentHashMap<>();
+    // 只在EDT中访问
+    private boolean reloginPrompting;
+    private final Path watchFile = Paths.get(config.get("WATCH_LIST_FILE") != null
+            ? config.get("WATCH_LIST_FILE") : "watches.json");
     private final ExecutorService executor = Executors.newCachedThreadPool();
 
     // UI组件声明
@@ -43,13 +54,8 @@ public class MainWindow extends JFrame {
     private final DefaultListModel<ProductListItem> productListModel;
     private final JList<ProductListItem> productList;
 
-    // 网页预览相关组件
-    private final JTextField urlField;
-    private final JPanel webPreviewPanel;
-    private WebView webView;
-    private final JFXPanel jfxPanel;
-    private final int PREVIEW_WIDTH = 414;  // iPhone标准宽度
-    private final int PREVIEW_HEIGHT = 896; // iPhone标准高度
+    // 网页预览在切换到预览标签页时才创建
+    private final WebPreviewPanel webPreviewPanel;
     private JPanel createAddPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createTitledBorder("商品管理"));
@@ -68,6 +74,10 @@ public class MainWindow extends JFrame {
         addButton.addActionListener(e -> addProduct());
         inputPanel.add(addButton);
 
+        JButton importButton = new JButton("批量导入");
+        importButton.addActionListener(e -> importWatchList());
+        inputPanel.add(importButton);
+
         panel.add(inputPanel, BorderLayout.NORTH);
 
         // 创建商品列表面板
@@ -84,14 +94,17 @@ public class MainWindow extends JFrame {
         JButton buyButton = new JButton("开始购买");
         JButton preOrderButton = new JButton("发布预购");
         JButton removeButton = new JButton("移除商品");
+        JButton addAccountButton = new JButton("添加账号");
 
         buyButton.addActionListener(e -> startBuyingSelected());
         preOrderButton.addActionListener(e -> startPreOrderSelected());
         removeButton.addActionListener(e -> removeSelectedProducts());
+        addAccountButton.addActionListener(e -> addAccount());
 
         buttonPanel.add(buyButton);
         buttonPanel.add(preOrderButton);
         buttonPanel.add(removeButton);
+        buttonPanel.add(addAccountButton);
 
         listPanel.add(buttonPanel, BorderLayout.SOUTH);
         panel.add(listPanel, BorderLayout.CENTER);
@@ -120,27 +133,15 @@ public class MainWindow extends JFrame {
                 return;
             }
 
-            // 检查商品是否已存在
-            boolean exists = false;
-            for (int i = 0; i < productListModel.getSize(); i++) {
-                if (productListModel.getElementAt(i).getName().equals(name)) {
-                    exists = true;
-                    break;
-                }
-            }
-
-            if (exists) {
-                showError("商品已存在");
+            // 由监控工厂判断商品是否已存在
+            ProductMonitorFactory.BatchResult batch = ProductMonitorFactory.createMonitors(
+                    List.of(new WatchDefinition(name, price, WatchMode.MONITOR)));
+            if (!batch.getDuplicates().isEmpty()) {
+                showError("相同价格的商品规则已存在");
                 return;
             }
-
-            // 创建并添加商品项
-            ProductListItem item = new ProductListItem(name, price);
-            productListModel.addElement(item);
-
-            // 创建监控器
-            ProductMonitor monitor = ProductMonitorFactory.createMonitor(name, price);
-            monitors.put(name, monitor);
+            addToProductList(batch.getWatches(), batch.getMonitors());
+            saveWatchList();
 
             // 清空输入框
             nameField.setText("");
@@ -188,13 +189,13 @@ public class MainWindow extends JFrame {
 
         // 启动购买任务
         for (ProductListItem item : selectedItems) {
-            ProductMonitor monitor = monitors.get(item.getName());
+            ProductMonitor monitor = monitors.get(item.getKey());
             if (monitor != null) {
-                monitor.setOperation(new BuyOperation(continuousBuying));
-                ProductWindow window = new ProductWindow(item.getName(), monitor);
-                monitor.addObserver(window);
+                monitor.setOperation(new BuyOperation(continuousBuying, item.getAccount()));
+                watchModes.put(item.getKey(), continuousBuying ? WatchMode.BUY_CONTINUOUS : WatchMode.BUY_ONCE);
+                ProductWindow window = new ProductWindow(item.getName(), monitor, this::onTargetPriceChanged);
                 window.setVisible(true);
-                executor.submit(monitor::startMonitoring);
+                executor.submit(() -> monitor.startMonitoring());
 
                 String modeStr = continuousBuying ? "持续购买" : "单次购买";
                 logger.log("System",
@@ -203,6 +204,27 @@ public class MainWindow extends JFrame {
                         Logger.LogLevel.INFO);
             }
         }
+        saveWatchList();
+    }
+
+    private void addAccount() {
+        String phone = JOptionPane.showInputDialog(this, "请输入手机号:", "添加账号", JOptionPane.PLAIN_MESSAGE);
+        if (phone == null || phone.trim().isEmpty()) {
+            return;
+        }
+        String code = JOptionPane.showInputDialog(this, "请输入验证码:", "添加账号", JOptionPane.PLAIN_MESSAGE);
+        if (code == null || code.trim().isEmpty()) {
+            return;
+        }
+
+        executor.submit(() -> {
+            try {
+                Session session = userLogin.loginAdditional(phone.trim(), code.trim());
+                showMessage("账号添加成功: " + session.getNickName());
+            } catch (Exception e) {
+                showError("添加账号失败: " + e.getMessage());
+            }
+        });
     }
 
     private void removeSelectedProducts() {
@@ -213,13 +235,120 @@ public class MainWindow extends JFrame {
         }
 
         for (ProductListItem item : selectedItems) {
-            ProductMonitor monitor = monitors.remove(item.getName());
+            ProductMonitor monitor = monitors.remove(item.getKey());
             if (monitor != null) {
-                monitor.stopMonitoring();
+                ProductMonitorFactory.removeMonitor(item.getKey());
+                watchModes.remove(item.getKey());
                 productListModel.removeElement(item);
                 logger.log("System", "移除商品: " + item.getName(), Logger.LogLevel.INFO);
             }
         }
+        saveWatchList();
+    }
+
+    // 在EDT中调用，一次性加入列表模型，只触发一次列表更新
+    private void addToProductList(List<WatchDefinition> watches, List<ProductMonitor> added) {
+        List<ProductListItem> items = new ArrayList<>(watches.size());
+        for (int i = 0; i < watches.size(); i++) {
+            WatchDefinition watch = watches.get(i);
+            ProductMonitor monitor = added.get(i);
+            monitors.put(monitor.getKey(), monitor);
+            watchModes.put(monitor.getKey(), watch.getMode());
+            items.add(new ProductListItem(watch.getName(), watch.getTargetPrice(), monitor.getKey(), watch.getAccount()));
+        }
+        productListModel.addAll(items);
+    }
+
+    // 从CSV或JSON文件批量导入，解析、校验和创建监控在后台线程中进行
+    private void importWatchList() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("批量导入商品");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("监控清单 (*.csv, *.json)", "csv", "json"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        executor.submit(() -> {
+            try {
+                long start = System.nanoTime();
+                WatchListStore.ImportResult imported = WatchListStore.importFile(file);
+                ProductMonitorFactory.BatchResult batch = ProductMonitorFactory.createMonitors(imported.getWatches());
+                // 带购买或发布模式的商品直接开始，第一次轮询在一个监控周期内错开
+                List<ProductMonitor> toStart = new ArrayList<>();
+                for (int i = 0; i < batch.getMonitors().size(); i++) {
+                    if (batch.getWatches().get(i).getMode() != WatchMode.MONITOR) {
+                        toStart.add(batch.getMonitors().get(i));
+                    }
+                }
+                long frequency = config.getSnapshot().getMonitorFrequencyMs();
+                for (int i = 0; i < toStart.size(); i++) {
+                    toStart.get(i).startMonitoring(frequency * i / toStart.size());
+                }
+                SwingUtilities.invokeLater(() -> {
+                    addToProductList(batch.getWatches(), batch.getMonitors());
+                    saveWatchList();
+                });
+
+                String summary = String.format("导入完成: 新增%d个, 已存在%d个, 无效%d行, 开始运行%d个, 耗时%d毫秒",
+                        batch.getMonitors().size(), batch.getDuplicates().size(),
+                        imported.getErrors().size() + batch.getInvalid().size(),
+                        toStart.size(), (System.nanoTime() - start) / 1_000_000);
+                for (String error : imported.getErrors()) {
+                    logger.log("System", "导入跳过" + error, Logger.LogLevel.WARN);
+                }
+                StringBuilder message = new StringBuilder(summary);
+                imported.getErrors().stream().limit(10).forEach(error -> message.append('\n').append(error));
+                if (imported.getErrors().size() > 10) {
+                    message.append("\n……完整列表见日志");
+                }
+                showMessage(message.toString());
+            } catch (Exception e) {
+                logger.log("System", "批量导入失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+                showError("批量导入失败: " + e.getMessage());
+            }
+        });
+    }
+
+    // 在EDT中调用：规则改价后标识可能变化，同步列表项和映射，并重新保存监控清单
+    private void onTargetPriceChanged(String oldKey, ProductMonitor monitor) {
+        String newKey = monitor.getKey();
+        monitors.remove(oldKey);
+        monitors.put(newKey, monitor);
+        WatchMode mode = watchModes.remove(oldKey);
+        if (mode != null) {
+            watchModes.put(newKey, mode);
+        }
+        for (int i = 0; i < productListModel.getSize(); i++) {
+            ProductListItem item = productListModel.getElementAt(i);
+            if (item.getKey().equals(oldKey)) {
+                productListModel.set(i, new ProductListItem(item.getName(),
+                        monitor.getProduct().getTargetPrice(), newKey, item.getAccount()));
+                break;
+            }
+        }
+        saveWatchList();
+    }
+
+    // 在EDT中取列表快照，在后台线程中写文件
+    private void saveWatchList() {
+        List<WatchDefinition> watches = new ArrayList<>(productListModel.getSize());
+        for (int i = 0; i < productListModel.getSize(); i++) {
+            ProductListItem item = productListModel.getElementAt(i);
+            ProductMonitor monitor = monitors.get(item.getKey());
+            watches.add(new WatchDefinition(item.getName(), item.getTargetPrice(),
+                    watchModes.getOrDefault(item.getKey(), WatchMode.MONITOR), item.getAccount(),
+                    monitor != null ? monitor.getTriggerExpression() : null));
+        }
+        Session primary = SessionManager.getInstance().getPrimary();
+        WatchListStore.WatchList watchList = new WatchListStore.WatchList(watches,
+                primary != null ? primary.getSelectedAddressId() : 0);
+        executor.submit(() -> {
+            try {
+                WatchListStore.save(watchFile, watchList);
+            } catch (Exception e) {
+                logger.log("System", "保存监控清单失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            }
+        });
     }
 
 
@@ -233,17 +362,19 @@ public class MainWindow extends JFrame {
         PreOrderOperation.PublishMode mode = showPublishModeDialog();
         if (mode != null) {
             for (ProductListItem item : selectedItems) {
-                ProductMonitor monitor = monitors.get(item.getName());
+                ProductMonitor monitor = monitors.get(item.getKey());
                 if (monitor != null) {
                     monitor.setPreOrderOperation(mode);
-                    ProductWindow window = new ProductWindow(item.getName(), monitor);
-                    monitor.addObserver(window);
+                    watchModes.put(item.getKey(), mode == PreOrderOperation.PublishMode.SINGLE
+                            ? WatchMode.PRE_ORDER_SINGLE : WatchMode.PRE_ORDER_TRIPLE);
+                    ProductWindow window = new ProductWindow(item.getName(), monitor, this::onTargetPriceChanged);
                     window.setVisible(true);
-                    executor.submit(monitor::startMonitoring);
+                    executor.submit(() -> monitor.startMonitoring());
                     logger.log("System", String.format("开始预购商品: %s, 模式: %s",
                             item.getName(), mode.getDescription()), Logger.LogLevel.INFO);
                 }
             }
+            saveWatchList();
         }
     }
 
@@ -271,9 +402,6 @@ public class MainWindow extends JFrame {
     public MainWindow() {
         super("商品抢购系统");
 
-        // 初始化JavaFX平台
-        Platform.setImplicitExit(false);
-
         // 初始化UI组件
         this.nameField = new JTextField(20);
         this.priceField = new JTextField(10);
@@ -286,14 +414,31 @@ public class MainWindow extends JFrame {
         this.productListModel = new DefaultListModel<>();
         this.productList = new JList<>(productListModel);
 
-        // 初始化网页预览组件
-        this.urlField = new JTextField(30);
-        this.webPreviewPanel = new JPanel();
-        this.jfxPanel = new JFXPanel();
+        this.webPreviewPanel = new WebPreviewPanel();
+
+        // 下单请求返回时播放提示音
+        EventBus.getInstance().subscribeAll(SwingUtilities::invokeLater, events -> {
+            for (MonitorEvent event : events) {
+                if (event.getType() == MonitorEvent.Type.ORDER_PLACED) {
+                    Toolkit.getDefaultToolkit().beep();
+                    break;
+                }
+            }
+        });
+
+        // 会话刷新失败时提示重新登录，回调来自会话刷新线程
+        SessionManager.getInstance().addListener(new SessionManager.SessionListener() {
+            @Override
+            public void onSessionRefreshed(Session session) {}
+
+            @Override
+            public void onSessionExpired(Session session) {
+                SwingUtilities.invokeLater(() -> promptRelogin(session));
+            }
+        });
 
         try {
             initializeUI();
-            initializeWebPreview();
             checkLoginStatus();
 
             // 设置窗口属性
@@ -308,125 +453,6 @@ public class MainWindow extends JFrame {
         }
     }
 
-    private void initializeWebPreview() {
-        // 创建URL输入面板
-        JPanel urlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        urlPanel.add(new JLabel("网址:"));
-        urlPanel.add(urlField);
-
-        JButton previewButton = new JButton("预览");
-        previewButton.addActionListener(e -> loadWebPreview());
-        urlPanel.add(previewButton);
-
-        // 设置JFXPanel的首选大小
-        jfxPanel.setPreferredSize(new Dimension(PREVIEW_WIDTH, PREVIEW_HEIGHT));
-
-        // 在JavaFX线程中初始化WebView
-        Platform.runLater(() -> {
-            try {
-                webView = new WebView();
-                webView.setPrefSize(PREVIEW_WIDTH, PREVIEW_HEIGHT);
-
-                // 启用JavaScript
-                webView.getEngine().setJavaScriptEnabled(true);
-
-                // 设置用户代理为移动设备
-                webView.getEngine().setUserAgent(
-                        "Mozilla/5.0 (iPhone; CPU iPhone OS 16_6 like Mac OS X) AppleWebKit/605.1.15 " +
-                                "(KHTML, like Gecko) Version/16.6 Mobile/15E148 Safari/604.1"
-                );
-
-                // 创建场景
-                VBox root = new VBox();
-                root.getChildren().add(webView);
-                Scene scene = new Scene(root, PREVIEW_WIDTH, PREVIEW_HEIGHT);
-                jfxPanel.setScene(scene);
-
-                // 添加加载状态监听器，在页面加载完成后设置token
-                webView.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
-                    if (newState == Worker.State.SUCCEEDED && config.get("XM_URL").equals(urlField.getText())) {
-                        setWebToken();
-                    }
-                });
-
-                // 加载初始页面
-                webView.getEngine().load(config.get("XM_URL"));
-            } catch (Exception e) {
-                logger.log("System", "WebView初始化失败: " + e.getMessage(), Logger.LogLevel.ERROR);
-                SwingUtilities.invokeLater(() -> showError("WebView初始化失败: " + e.getMessage()));
-            }
-        });
-
-        // 创建一个带滚动条的面板来容纳预览窗口
-        JScrollPane scrollPane = new JScrollPane(jfxPanel);
-        scrollPane.setPreferredSize(new Dimension(PREVIEW_WIDTH + 20, PREVIEW_HEIGHT + 20));
-
-        // 设置预览面板
-        webPreviewPanel.setLayout(new BorderLayout());
-        webPreviewPanel.add(urlPanel, BorderLayout.NORTH);
-        webPreviewPanel.add(scrollPane, BorderLayout.CENTER);
-        webPreviewPanel.setBorder(BorderFactory.createTitledBorder("手机网页预览"));
-
-        // 添加到主面板
-        mainContentPanel.add(webPreviewPanel, BorderLayout.EAST);
-    }
-
-    private void loadWebPreview() {
-        String url = urlField.getText().trim();
-        if (url.isEmpty()) {
-            showError("请输入网址");
-            return;
-        }
-
-        // 添加协议前缀如果没有的话
-        if (!url.startsWith("http://") && !url.startsWith("https://")) {
-            url = "https://" + url;
-        }
-
-        final String finalUrl = url;
-        Platform.runLater(() -> {
-            try {
-                webView.getEngine().load(finalUrl);
-            } catch (Exception e) {
-                logger.log("System", "加载网页失败: " + e.getMessage(), Logger.LogLevel.ERROR);
-                SwingUtilities.invokeLater(() -> showError("加载网页失败: " + e.getMessage()));
-            }
-        });
-    }
-
-
-
-    private void setWebToken() {
-        String token = config.get(Config.USER_TOKEN);
-        if (token == null || token.isEmpty()) {
-            showError("未找到token，请先登录");
-            return;
-        }
-
-        Platform.runLater(() -> {
-            try {
-                // 注入JavaScript代码来设置token
-                String script = String.format(
-                        "localStorage.setItem('token', '%s'); " +
-                                "localStorage.setItem('initToken', '%s'); " +
-                                "localStorage.setItem('initInfo', '%s'); " +
-                                "localStorage.setItem('userInfo', '%s'); " +
-                                "document.cookie = 'token=%s; path=/'; " +
-                                "console.log('Token and user info set successfully');",
-                        token, token,
-                        config.get("LOGIN_INFO"),
-                        config.get("LOGIN_INFO"),
-                        token
-                );
-
-                webView.getEngine().executeScript(script);
-            } catch (Exception e) {
-                logger.log("System", "设置Token失败: " + e.getMessage(), Logger.LogLevel.ERROR);
-                showError("设置Token失败: " + e.getMessage());
-            }
-        });
-    }
-
     private void initializeUI() {
         // 设置布局
         setLayout(new BorderLayout());
@@ -436,6 +462,7 @@ public class MainWindow extends JFrame {
 
         // 初始化地址下拉框并添加点击监听器
         addressComboBox = new JComboBox<>();
+        addressComboBox.addActionListener(e -> updateSelectedAddress());
         addressComboBox.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent evt) {
@@ -446,7 +473,7 @@ public class MainWindow extends JFrame {
         // 初始化主内容面板
         mainContentPanel.setVisible(false);
         mainContentPanel.add(createAddPanel(), BorderLayout.NORTH);
-        mainContentPanel.add(createProductListScrollPane(), BorderLayout.CENTER);
+        mainContentPanel.add(createContentTabs(), BorderLayout.CENTER);
 
         // 设置产品列表属性
         productList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
@@ -495,22 +522,35 @@ public class MainWindow extends JFrame {
         }
     }
 
+    // 会话校验、地址获取和监控恢复并行进行，不阻塞EDT
     private void handleAutoLogin() {
-        try {
-            String token = config.get(Config.USER_TOKEN);
-            String nickName = config.get(Config.USER_NICKNAME);
-            String phone = config.get(Config.USER_PHONE);
+        switchToMainContent();
+        new StartupOrchestrator.Builder(watchFile)
+                .listener(new StartupOrchestrator.Listener() {
+                    @Override
+                    public void onSessionValidated(boolean valid) {
+                        String nickName = config.get(Config.USER_NICKNAME);
+                        if (valid) {
+                            logger.log("System", "自动登录成功: " + nickName, Logger.LogLevel.INFO);
+                            showMessage("欢迎回来，" + nickName);
+                        } else {
+                            logger.log("System", "自动登录校验失败: " + nickName, Logger.LogLevel.WARN);
+                            showError("登录状态校验失败，请检查网络或重新登录");
+                        }
+                    }
 
-            userLogin.setLoginInfo(token, nickName, phone);
-            switchToMainContent();
-            updateAddressList();
+                    @Override
+                    public void onAddressesLoaded(List<AddressItem> addresses) {
+                        SwingUtilities.invokeLater(() -> updateAddressComboBox(addresses));
+                    }
 
-            logger.log("System", "自动登录成功: " + nickName, Logger.LogLevel.INFO);
-            showMessage("欢迎回来，" + nickName);
-        } catch (Exception e) {
-            logger.log("System", "自动登录失败: " + e.getMessage(), Logger.LogLevel.ERROR);
-            handleLoginFailure(e);
-        }
+                    @Override
+                    public void onMonitorsRestored(List<WatchDefinition> watches, List<ProductMonitor> restored) {
+                        SwingUtilities.invokeLater(() -> addToProductList(watches, restored));
+                    }
+                })
+                .build()
+                .start();
     }
 
     private void switchToMainContent() {
@@ -549,6 +589,8 @@ public class MainWindow extends JFrame {
 
 
     private void handleWindowClosing() {
+        // 停止前写入最后一次检查点，记录哪些监控仍在运行
+        MonitorCheckpoint.getInstance().stop();
         monitors.values().forEach(ProductMonitor::stopMonitoring);
         executor.shutdown();
         try {
@@ -559,12 +601,27 @@ public class MainWindow extends JFrame {
             executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
-        logger.shutdown();
-        config.saveConfig();
+        SessionManager.getInstance().stop();
+        config.flush();
         ProductMonitorFactory.shutdown();
+        logger.shutdown();
     }
 
 
+    private JTabbedPane createContentTabs() {
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("监控商品", createProductListScrollPane());
+        tabs.addTab("网页预览", webPreviewPanel);
+        tabs.addChangeListener(e -> {
+            if (tabs.getSelectedComponent() == webPreviewPanel) {
+                webPreviewPanel.activate();
+            } else {
+                webPreviewPanel.deactivate();
+            }
+        });
+        return tabs;
+    }
+
     private JScrollPane createProductListScrollPane() {
         JScrollPane scrollPane = new JScrollPane(productListPanel);
         scrollPane.setBorder(BorderFactory.createTitledBorder("监控商品列表"));
@@ -605,13 +662,15 @@ public class MainWindow extends JFrame {
         saveLoginInfo();
         switchToMainContent();
         updateAddressList();
+        refreshAccountPool();
         showMessage("登录成功，欢迎 " + userLogin.getNickName());
     }
 
     private void saveLoginInfo() {
-        config.set(Config.USER_TOKEN, userLogin.getToken());
-        config.set(Config.USER_NICKNAME, userLogin.getNickName());
-        config.set(Config.USER_PHONE, userLogin.getPhone());
+        config.update(Map.of(
+                Config.USER_TOKEN, userLogin.getToken(),
+                Config.USER_NICKNAME, userLogin.getNickName(),
+                Config.USER_PHONE, userLogin.getPhone()));
         config.saveConfig();
     }
 
@@ -625,6 +684,34 @@ public class MainWindow extends JFrame {
         }
     }
 
+    // 在EDT中调用；同一时间只弹出一个提示
+    private void promptRelogin(Session session) {
+        if (reloginPrompting) {
+            return;
+        }
+        logger.log("System", "会话已失效: " + session.getNickName(), Logger.LogLevel.ERROR);
+        if (session != SessionManager.getInstance().getPrimary()) {
+            showError("账号" + session.getNickName() + "已失效，请通过\"添加账号\"重新登录");
+            return;
+        }
+        reloginPrompting = true;
+        try {
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "登录已失效，购买和发布操作将无法下单。是否重新登录？",
+                    "登录失效", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (choice == JOptionPane.YES_OPTION) {
+                phoneField.setText(session.getPhone());
+                codeField.setText("");
+                getContentPane().removeAll();
+                getContentPane().add(loginPanel, BorderLayout.CENTER);
+                revalidate();
+                repaint();
+            }
+        } finally {
+            reloginPrompting = false;
+        }
+    }
+
     private void handleLoginFailure(Exception e) {
         userLogin.logout();
         showError("登录失败: " + e.getMessage());
@@ -632,11 +719,40 @@ public class MainWindow extends JFrame {
     }
 
 
+    private void updateSelectedAddress() {
+        AddressItem item = (AddressItem) addressComboBox.getSelectedItem();
+        Session session = SessionManager.getInstance().getPrimary();
+        if (item != null && session != null) {
+            session.setSelectedAddressId(item.getId());
+        }
+    }
+
+    private void refreshAccountPool() {
+        executor.submit(() -> {
+            AccountPool accountPool = AccountPool.getInstance();
+            Session primary = SessionManager.getInstance().getPrimary();
+            for (Session session : accountPool.getActiveSessions()) {
+                if (session != primary) {
+                    accountPool.refreshAddresses(session);
+                }
+            }
+        });
+    }
+
     private void updateAddressComboBox(List<AddressItem> addresses) {
+        // 重新填充会触发选择事件，先记下当前选择的地址，填充后再选回
+        Session session = SessionManager.getInstance().getPrimary();
+        long selectedId = session != null ? session.getSelectedAddressId() : 0;
         addressComboBox.removeAllItems();
         for (AddressItem address : addresses) {
             addressComboBox.addItem(address);
         }
+        for (AddressItem address : addresses) {
+            if (address.getId() == selectedId) {
+                addressComboBox.setSelectedItem(address);
+                break;
+            }
+        }
     }
 
 
@@ -647,9 +763,6 @@ public class MainWindow extends JFrame {
             logger.log("System", "设置系统外观失败: " + e.getMessage(), Logger.LogLevel.WARN);
         }
 
-        // 确保在JavaFX线程初始化之前启动
-        Platform.startup(() -> {});
-
         SwingUtilities.invokeLater(() -> {
             try {
                 MainWindow window = new MainWindow();
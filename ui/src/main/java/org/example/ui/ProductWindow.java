@@ -1,28 +1,42 @@
 package org.example.ui;
 
-import org.example.model.Product;
+import org.example.model.ProductSnapshot;
 import org.example.service.ProductMonitor;
+import org.example.service.ProductMonitorFactory;
+import org.example.service.event.EventBus;
+import org.example.service.event.EventSubscriber;
+import org.example.service.event.MonitorEvent;
 import org.example.util.Logger;
 
 import javax.swing.*;
 import java.awt.*;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
-public class ProductWindow extends JFrame implements ProductObserver , Logger.LogListener{
+public class ProductWindow extends JFrame implements EventSubscriber, Logger.LogListener {
     private static final Logger logger = Logger.getInstance();
     private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm:ss");
 
     private final ProductMonitor monitor;
+    // 修改价格后在EDT中调用，参数为原规则标识和监控
+    private final BiConsumer<String, ProductMonitor> onTargetPriceChanged;
     private final JTextArea logArea;
     private final JLabel statusLabel;
     private final JLabel currentPriceLabel;
     private final JLabel targetPriceLabel;
     private final JButton actionButton;
     private JComboBox<Integer> frequencyComboBox;
+    private EventBus.Subscription subscription;
+    private Logger.ListenerRegistration logRegistration;
     private final Map<String, StringBuilder> logBuffers = new HashMap<>();
+    // 只在EDT中访问；历史加载完成后置为null
+    private List<Logger.LogEntry> pendingLogs = new ArrayList<>();
+    private long lastHistorySequence = -1;
 
     private void initializeUI() {
         setLayout(new BorderLayout(5, 5));
@@ -53,8 +67,13 @@ public class ProductWindow extends JFrame implements ProductObserver , Logger.Lo
 
         add(controlPanel, BorderLayout.NORTH);
 
-        // 注册日志监听
-        Logger.getInstance().addListener(this);
+        // 先订阅本规则的日志(历史加载完之前暂存)，再显示历史，避免两步之间的日志丢失。
+        // 日志来源是规则标识，同名商品的其他规则不会混进来
+        logRegistration = logger.addListener(monitor.getKey(), SwingUtilities::invokeLater, this);
+        loadHistoryLogs();
+
+        // 订阅监控事件，每帧最多收到一次批量更新
+        subscription = EventBus.getInstance().subscribe(monitor.getKey(), SwingUtilities::invokeLater, this);
     }
 
     private void updateMonitorFrequency() {
@@ -62,29 +81,71 @@ public class ProductWindow extends JFrame implements ProductObserver , Logger.Lo
         monitor.setMonitorFrequency(frequency * 1000L);
     }
 
+    // 已由日志线程切换到EDT执行，只会收到本规则的日志
     @Override
     public void onNewLog(String source, String message, Logger.LogLevel level, Date timestamp) {
-        if (source.equals(monitor.getProduct().getName())) {
-            SwingUtilities.invokeLater(() -> {
-                appendLog(String.format("[%s][%s] %s",
-                        TIME_FORMAT.format(timestamp),
-                        level,
-                        message
-                ));
-            });
+        appendLog(String.format("[%s][%s] %s", TIME_FORMAT.format(timestamp), level, message));
+    }
+
+    @Override
+    public void onNewLogs(List<Logger.LogEntry> entries) {
+        if (pendingLogs != null) {
+            pendingLogs.addAll(entries);
+            return;
+        }
+        appendLogEntries(newerThanHistory(entries));
+        logArea.setCaretPosition(logArea.getDocument().getLength());
+    }
+
+    // 历史显示后补上订阅期间暂存的日志，已在历史中的按序号跳过
+    private void loadHistoryLogs() {
+        List<Logger.LogEntry> history = logger.getHistoryLogs(monitor.getKey());
+        for (Logger.LogEntry entry : history) {
+            lastHistorySequence = Math.max(lastHistorySequence, entry.getSequence());
+        }
+        appendLogEntries(history);
+        List<Logger.LogEntry> pending = pendingLogs;
+        pendingLogs = null;
+        onNewLogs(pending);
+    }
+
+    private List<Logger.LogEntry> newerThanHistory(List<Logger.LogEntry> entries) {
+        if (lastHistorySequence < 0) {
+            return entries;
         }
+        List<Logger.LogEntry> newer = new ArrayList<>(entries.size());
+        for (Logger.LogEntry entry : entries) {
+            if (entry.getSequence() > lastHistorySequence) {
+                newer.add(entry);
+            }
+        }
+        return newer;
+    }
+
+    private void appendLogEntries(List<Logger.LogEntry> entries) {
+        StringBuilder text = new StringBuilder();
+        for (Logger.LogEntry entry : entries) {
+            text.append(String.format("[%s][%s] %s%n",
+                    TIME_FORMAT.format(new Date(entry.getTimestamp())),
+                    entry.getLevel(),
+                    entry.getMessage()));
+        }
+        logArea.append(text.toString());
     }
 
     @Override
     public void dispose() {
-        Logger.getInstance().removeListener(this);
+        logger.removeListener(logRegistration);
+        EventBus.getInstance().unsubscribe(subscription);
         super.dispose();
     }
 
 
-    public ProductWindow(String productName, ProductMonitor monitor) {
+    public ProductWindow(String productName, ProductMonitor monitor,
+                         BiConsumer<String, ProductMonitor> onTargetPriceChanged) {
         super(productName + " - 发布日志");
         this.monitor = monitor;
+        this.onTargetPriceChanged = onTargetPriceChanged;
 
         this.logArea = new JTextArea(20, 50);
         this.statusLabel = new JLabel("状态: 初始化");
@@ -157,27 +218,46 @@ public class ProductWindow extends JFrame implements ProductObserver , Logger.Lo
                     return;
                 }
 
-                monitor.updateTargetPrice(newPrice);
-                targetPriceLabel.setText("目标价格: " + newPrice);
-                logger.log(monitor.getProduct().getName(),
-                        "更新目标价格: " + newPrice);
+                changeTargetPrice(newPrice);
             } catch (NumberFormatException e) {
                 showError("请输入有效的价格！");
             }
         }
     }
 
+    // 价格是规则标识的一部分：标识变化后按新标识重新订阅日志和事件，再通知主窗口更新列表和监控清单
+    private void changeTargetPrice(double newPrice) {
+        String oldKey = monitor.getKey();
+        String newKey;
+        try {
+            newKey = ProductMonitorFactory.updateTargetPrice(monitor, newPrice);
+        } catch (IllegalArgumentException e) {
+            showError(e.getMessage());
+            return;
+        }
+        if (!newKey.equals(oldKey)) {
+            logger.removeListener(logRegistration);
+            EventBus.getInstance().unsubscribe(subscription);
+            logRegistration = logger.addListener(newKey, SwingUtilities::invokeLater, this);
+            subscription = EventBus.getInstance().subscribe(newKey, SwingUtilities::invokeLater, this);
+        }
+        targetPriceLabel.setText("目标价格: " + newPrice);
+        logger.log(newKey, "更新目标价格: " + newPrice);
+        onTargetPriceChanged.accept(oldKey, monitor);
+    }
+
+    // 已由事件总线切换到EDT执行
     @Override
-    public void update(Product product, String message) {
-        SwingUtilities.invokeLater(() -> {
-            updateLabels(product);
-            appendLog(message);
-        });
+    public void onEvents(List<MonitorEvent> events) {
+        for (MonitorEvent event : events) {
+            appendLog(event.describe());
+        }
+        updateLabels(events.get(events.size() - 1).getSnapshot());
     }
 
-    private void updateLabels(Product product) {
-        statusLabel.setText("状态: " + product.getStatus());
-        currentPriceLabel.setText("当前价格: " + product.getCurrentPrice());
+    private void updateLabels(ProductSnapshot snapshot) {
+        statusLabel.setText("状态: " + snapshot.getStatus());
+        currentPriceLabel.setText("当前价格: " + snapshot.getCurrentPrice());
     }
 
     private void appendLog(String message) {
@@ -0,0 +1,169 @@
+package org.example.ui;
+
+import org.example.config.Config;
+import org.example.util.Logger;
+
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.Scene;
+import javafx.scene.layout.VBox;
+import javafx.scene.web.WebView;
+
+import javax.swing.*;
+import java.awt.*;
+
+// 手机网页预览。JavaFX平台、JFXPanel和WebView在第一次显示时才创建，隐藏时释放WebView和页面；
+// 平台线程一旦启动无法重新启动，因此只释放页面，不退出平台
+public class WebPreviewPanel extends JPanel {
+    private static final Logger logger = Logger.getInstance();
+    private static final int PREVIEW_WIDTH = 414;  // iPhone标准宽度
+    private static final int PREVIEW_HEIGHT = 896; // iPhone标准高度
+    private static final String MOBILE_USER_AGENT =
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 16_6 like Mac OS X) AppleWebKit/605.1.15 " +
+                    "(KHTML, like Gecko) Version/16.6 Mobile/15E148 Safari/604.1";
+
+    private final Config config = Config.getInstance();
+    private final JTextField urlField = new JTextField(30);
+    private final JScrollPane scrollPane = new JScrollPane();
+    // 只在EDT中访问
+    private JFXPanel jfxPanel;
+    // 只在JavaFX线程中访问
+    private WebView webView;
+
+    public WebPreviewPanel() {
+        super(new BorderLayout());
+
+        JPanel urlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        urlPanel.add(new JLabel("网址:"));
+        urlPanel.add(urlField);
+        JButton previewButton = new JButton("预览");
+        previewButton.addActionListener(e -> loadWebPreview());
+        urlPanel.add(previewButton);
+
+        scrollPane.setPreferredSize(new Dimension(PREVIEW_WIDTH + 20, PREVIEW_HEIGHT + 20));
+        add(urlPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        setBorder(BorderFactory.createTitledBorder("手机网页预览"));
+    }
+
+    // 预览标签页被选中时调用
+    public void activate() {
+        if (jfxPanel != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // 移除JFXPanel后不能让平台自动退出，否则再次显示时无法重新启动
+        Platform.setImplicitExit(false);
+        jfxPanel = new JFXPanel(); // 第一次创建时启动JavaFX平台
+        jfxPanel.setPreferredSize(new Dimension(PREVIEW_WIDTH, PREVIEW_HEIGHT));
+        scrollPane.setViewportView(jfxPanel);
+        JFXPanel panel = jfxPanel;
+        Platform.runLater(() -> createWebView(panel, start));
+    }
+
+    // 预览标签页被隐藏时调用，释放WebView和已加载的页面
+    public void deactivate() {
+        if (jfxPanel == null) {
+            return;
+        }
+        JFXPanel panel = jfxPanel;
+        jfxPanel = null;
+        scrollPane.setViewportView(null);
+        Platform.runLater(() -> {
+            if (webView != null) {
+                webView.getEngine().load(null);
+                webView = null;
+            }
+            panel.setScene(null);
+        });
+        logger.log("System", "网页预览已释放", Logger.LogLevel.INFO);
+    }
+
+    private void createWebView(JFXPanel panel, long start) {
+        try {
+            WebView view = new WebView();
+            view.setPrefSize(PREVIEW_WIDTH, PREVIEW_HEIGHT);
+            view.getEngine().setJavaScriptEnabled(true);
+            view.getEngine().setUserAgent(MOBILE_USER_AGENT);
+
+            VBox root = new VBox();
+            root.getChildren().add(view);
+            panel.setScene(new Scene(root, PREVIEW_WIDTH, PREVIEW_HEIGHT));
+
+            // 页面加载完成后设置token
+            view.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
+                if (newState == Worker.State.SUCCEEDED && config.get("XM_URL").equals(urlField.getText())) {
+                    setWebToken(view);
+                }
+            });
+            webView = view;
+            view.getEngine().load(config.get("XM_URL"));
+            logger.log("System", Logger.LogLevel.INFO, "网页预览初始化完成，耗时{}毫秒",
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.log("System", "WebView初始化失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            showError("WebView初始化失败: " + e.getMessage());
+        }
+    }
+
+    private void loadWebPreview() {
+        String url = urlField.getText().trim();
+        if (url.isEmpty()) {
+            showError("请输入网址");
+            return;
+        }
+
+        // 添加协议前缀如果没有的话
+        if (!url.startsWith("http://") && !url.startsWith("https://")) {
+            url = "https://" + url;
+        }
+
+        final String finalUrl = url;
+        Platform.runLater(() -> {
+            if (webView == null) {
+                return; // 已隐藏或仍在初始化
+            }
+            try {
+                webView.getEngine().load(finalUrl);
+            } catch (Exception e) {
+                logger.log("System", "加载网页失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+                showError("加载网页失败: " + e.getMessage());
+            }
+        });
+    }
+
+    // 在JavaFX线程中调用
+    private void setWebToken(WebView view) {
+        String token = config.get(Config.USER_TOKEN);
+        if (token == null || token.isEmpty()) {
+            showError("未找到token，请先登录");
+            return;
+        }
+
+        try {
+            // 注入JavaScript代码来设置token
+            String script = String.format(
+                    "localStorage.setItem('token', '%s'); " +
+                            "localStorage.setItem('initToken', '%s'); " +
+                            "localStorage.setItem('initInfo', '%s'); " +
+                            "localStorage.setItem('userInfo', '%s'); " +
+                            "document.cookie = 'token=%s; path=/'; " +
+                            "console.log('Token and user info set successfully');",
+                    token, token,
+                    config.get("LOGIN_INFO"),
+                    config.get("LOGIN_INFO"),
+                    token
+            );
+            view.getEngine().executeScript(script);
+        } catch (Exception e) {
+            logger.log("System", "设置Token失败: " + e.getMessage(), Logger.LogLevel.ERROR);
+            showError("设置Token失败: " + e.getMessage());
+        }
+    }
+
+    private void showError(String message) {
+        SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(this, message, "错误", JOptionPane.ERROR_MESSAGE));
+    }
+}